@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid
+
+import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+import kotlin.reflect.KClass
+
+/**
+ * Hooks called around every method a decorator forwards to its target. [after] is only called
+ * if the target returned normally.
+ */
+interface DecoratorInterceptor {
+    fun before(method: ResolvedMethod, args: Array<Any?>) {
+    }
+
+    fun after(method: ResolvedMethod, args: Array<Any?>, returnValue: Any?) {
+    }
+}
+
+interface DecoratorFactory<T> {
+    fun methods(): List<ResolvedMethod>
+
+    fun createDecorator(target: T): T
+
+    fun createDecorator(target: T, interceptor: DecoratorInterceptor): T
+}
+
+inline fun <reified T : Any> ReflectMaid.createDecoratorFactory(): DecoratorFactory<T> {
+    val resolvedType = resolve<T>()
+    return createDecoratorFactory(resolvedType)
+}
+
+fun <T : Any> ReflectMaid.createDecoratorFactory(facadeInterface: Class<T>): DecoratorFactory<T> {
+    val resolvedType = resolve(facadeInterface)
+    return createDecoratorFactory(resolvedType)
+}
+
+fun <T : Any> ReflectMaid.createDecoratorFactory(facadeInterface: KClass<T>): DecoratorFactory<T> {
+    val resolvedType = resolve(facadeInterface)
+    return createDecoratorFactory(resolvedType)
+}
+
+fun <T : Any> ReflectMaid.createDecoratorFactory(facadeInterface: ResolvedType): DecoratorFactory<T> {
+    requireFacadeInterface(facadeInterface, "decorator facade")
+    return executorFactory.createDecoratorFactory(facadeInterface, this)
+}
+
+/**
+ * The instance methods a decorator of [facadeInterface] implements, including the ones inherited
+ * from its super interfaces. Methods overridden in a sub interface are only included once.
+ * Methods of [Object] are not included, even if redeclared, because decorators always forward
+ * them to their target without calling the interceptor.
+ */
+fun decoratedMethods(facadeInterface: ResolvedType): List<ResolvedMethod> {
+    return decoratedJavaMethods(facadeInterface).values.distinct()
+}
+
+/**
+ * Maps every java method a decorator of [facadeInterface] has to implement to the [decoratedMethods]
+ * entry it belongs to. An overridden method of a super interface whose erasure differs, e.g. because
+ * the override narrows the return type, maps to the overriding method.
+ */
+fun decoratedJavaMethods(facadeInterface: ResolvedType): Map<Method, ResolvedMethod> {
+    val overridingMethods = HashMap<List<Any>, ResolvedMethod>()
+    val javaMethods = LinkedHashMap<Method, ResolvedMethod>()
+    (listOf(facadeInterface) + facadeInterface.allSupertypes())
+        .flatMap { it.methods() }
+        .filter { !it.isStatic() && !isObjectMethod(it.method) }
+        .forEach {
+            val signature = listOf(it.name) + it.parameters.map { parameter -> parameter.type }
+            val overridingMethod = overridingMethods.getOrPut(signature) { it }
+            javaMethods.putIfAbsent(it.method, overridingMethod)
+        }
+    return javaMethods
+}
+
+internal fun isObjectMethod(method: Method): Boolean {
+    return try {
+        Any::class.java.getMethod(method.name, *method.parameterTypes)
+        true
+    } catch (e: NoSuchMethodException) {
+        false
+    }
+}
+
+fun <T> createDecoratorFactoryUsingInvocationHandler(facadeInterface: ResolvedType): DecoratorFactory<T> {
+    val javaMethods = decoratedJavaMethods(facadeInterface)
+    val assignableType = facadeInterface.assignableType()
+    return InvocationHandlerDecoratorFactory(javaMethods, assignableType.classLoader, assignableType)
+}
+
+class InvocationHandlerDecoratorFactory<T>(
+    private val resolvedMethods: Map<Method, ResolvedMethod>,
+    private val classLoader: ClassLoader,
+    private val assignableType: Class<*>
+) : DecoratorFactory<T> {
+    private val methods = resolvedMethods.values.distinct()
+
+    override fun methods(): List<ResolvedMethod> {
+        return methods
+    }
+
+    override fun createDecorator(target: T): T {
+        return createProxy(DecoratingInvocationHandler(target as Any, null, resolvedMethods))
+    }
+
+    override fun createDecorator(target: T, interceptor: DecoratorInterceptor): T {
+        return createProxy(DecoratingInvocationHandler(target as Any, interceptor, resolvedMethods))
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun createProxy(invocationHandler: InvocationHandler): T {
+        return Proxy.newProxyInstance(classLoader, arrayOf(assignableType), invocationHandler) as T
+    }
+}
+
+private class DecoratingInvocationHandler(
+    private val target: Any,
+    private val interceptor: DecoratorInterceptor?,
+    private val methods: Map<Method, ResolvedMethod>
+) : InvocationHandler {
+
+    @Suppress("UNCHECKED_CAST")
+    override fun invoke(proxy: Any?, method: Method, args: Array<out Any>?): Any? {
+        val arguments = (args ?: NO_ARGUMENTS) as Array<Any?>
+        val resolvedMethod = methods[method]
+        if (interceptor == null || resolvedMethod == null) {
+            return invokeTarget(method, arguments)
+        }
+        interceptor.before(resolvedMethod, arguments)
+        val returnValue = invokeTarget(method, arguments)
+        interceptor.after(resolvedMethod, arguments, returnValue)
+        return returnValue
+    }
+
+    private fun invokeTarget(method: Method, arguments: Array<Any?>): Any? {
+        try {
+            return method.invoke(target, *arguments)
+        } catch (e: InvocationTargetException) {
+            throw e.targetException
+        }
+    }
+}
+
+private val NO_ARGUMENTS = arrayOf<Any?>()
\ No newline at end of file
@@ -35,6 +35,52 @@ fun interface ProxyFactory<T> {
     fun createProxy(handler: ProxyHandler): T
 }
 
+fun interface IndexedProxyHandler {
+    fun invoke(methodIndex: Int, args: Array<Any?>): Any?
+}
+
+fun interface MethodProxyHandler {
+    fun invoke(args: Array<Any?>): Any?
+}
+
+/**
+ * A [ProxyFactory] whose proxies report calls by the index of the called method in [methods]
+ * and hand over the arguments as they were passed, without wrapping them in a list.
+ */
+interface IndexedProxyFactory<T> : ProxyFactory<T> {
+    fun methods(): List<ResolvedMethod>
+
+    fun createIndexedProxy(handler: IndexedProxyHandler): T
+
+    override fun createProxy(handler: ProxyHandler): T {
+        val methods = methods()
+        return createIndexedProxy { methodIndex, args -> handler.invoke(methods[methodIndex], args.asList()) }
+    }
+
+    /**
+     * Creates a proxy that calls the handler bound to each method directly. Calling a method
+     * without a bound handler results in a [DynamicProxyException].
+     */
+    fun createBoundProxy(handlers: Map<ResolvedMethod, MethodProxyHandler>): T {
+        val boundHandlers = bindMethodProxyHandlers(methods(), handlers)
+        return createIndexedProxy { methodIndex, args -> boundHandlers[methodIndex].invoke(args) }
+    }
+}
+
+fun bindMethodProxyHandlers(
+    methods: List<ResolvedMethod>,
+    handlers: Map<ResolvedMethod, MethodProxyHandler>
+): Array<MethodProxyHandler> {
+    handlers.keys
+        .firstOrNull { !methods.contains(it) }
+        ?.let { throw DynamicProxyException("cannot bind handler to method ${it.describe()} of another type") }
+    return methods.map { method ->
+        handlers[method] ?: MethodProxyHandler {
+            throw DynamicProxyException("no handler has been bound to method ${method.describe()}")
+        }
+    }.toTypedArray()
+}
+
 inline fun <reified T : Any> ReflectMaid.createDynamicProxyFactory(): ProxyFactory<T> {
     val resolvedType = resolve<T>()
     return createDynamicProxyFactory(resolvedType)
@@ -56,16 +102,38 @@ fun <T : Any> ReflectMaid.createDynamicProxyFactory(facadeInterface: GenericType
 }
 
 fun <T : Any> ReflectMaid.createDynamicProxyFactory(facadeInterface: ResolvedType): ProxyFactory<T> {
+    requireFacadeInterface(facadeInterface, "dynamic proxy facade")
+    return executorFactory.createDynamicProxyFactory(facadeInterface, this)
+}
+
+inline fun <reified T : Any> ReflectMaid.createIndexedDynamicProxyFactory(): IndexedProxyFactory<T> {
+    val resolvedType = resolve<T>()
+    return createIndexedDynamicProxyFactory(resolvedType)
+}
+
+fun <T : Any> ReflectMaid.createIndexedDynamicProxyFactory(facadeInterface: Class<T>): IndexedProxyFactory<T> {
+    val resolvedType = resolve(facadeInterface)
+    return createIndexedDynamicProxyFactory(resolvedType)
+}
+
+fun <T : Any> ReflectMaid.createIndexedDynamicProxyFactory(facadeInterface: ResolvedType): IndexedProxyFactory<T> {
+    requireFacadeInterface(facadeInterface, "dynamic proxy facade")
+    return executorFactory.createIndexedDynamicProxyFactory(facadeInterface, this)
+}
+
+internal fun requireFacadeInterface(facadeInterface: ResolvedType, usage: String) {
     if (!facadeInterface.isInterface()) {
         throw DynamicProxyException(
             "type '${facadeInterface.description()}' needs to be an interface to be used " +
-                    "as a dynamic proxy facade"
+                    "as a $usage"
         )
     }
-    return executorFactory.createDynamicProxyFactory(facadeInterface, this)
 }
 
-fun <T> createDynamicProxyFactoryUsingInvocationHandler(facadeInterface: ResolvedType, reflectMaid: ReflectMaid): ProxyFactory<T> {
+fun <T> createDynamicProxyFactoryUsingInvocationHandler(
+    facadeInterface: ResolvedType,
+    reflectMaid: ReflectMaid
+): IndexedProxyFactory<T> {
     val objectType = reflectMaid.resolve(Any::class.java)
     val methods = listOf(facadeInterface, objectType)
         .flatMap { it.methods() }
@@ -79,11 +147,17 @@ class InvocationHandlerProxyFactory<T>(
     private val methods: Map<Method, ResolvedMethod>,
     private val classLoader: ClassLoader,
     private val assignableType: Class<*>
-) : ProxyFactory<T> {
+) : IndexedProxyFactory<T> {
+    private val resolvedMethods = methods.values.toList()
+    private val methodIndices = methods.keys.withIndex().associate { (index, method) -> method to index }
+
+    override fun methods(): List<ResolvedMethod> {
+        return resolvedMethods
+    }
 
     @Suppress("UNCHECKED_CAST")
-    override fun createProxy(handler: ProxyHandler): T {
-        val invocationHandler = InternalInvocationHandler(handler, methods)
+    override fun createIndexedProxy(handler: IndexedProxyHandler): T {
+        val invocationHandler = InternalInvocationHandler(handler, methodIndices)
         val proxyInstance = Proxy.newProxyInstance(
             classLoader,
             arrayOf(assignableType),
@@ -94,15 +168,17 @@ class InvocationHandlerProxyFactory<T>(
 }
 
 internal class InternalInvocationHandler(
-    private val handler: ProxyHandler,
-    private val methods: Map<Method, ResolvedMethod>
+    private val handler: IndexedProxyHandler,
+    private val methodIndices: Map<Method, Int>
 ) : InvocationHandler {
 
+    @Suppress("UNCHECKED_CAST")
     override fun invoke(proxy: Any?, method: Method, args: Array<out Any>?): Any? {
-        val resolvedMethod = methods[method]!!
-        val parameters = args?.toList() ?: emptyList<Any?>()
-        return handler.invoke(resolvedMethod, parameters)
+        val methodIndex = methodIndices[method]!!
+        return handler.invoke(methodIndex, (args ?: NO_ARGUMENTS) as Array<Any?>)
     }
 }
 
+private val NO_ARGUMENTS = arrayOf<Any?>()
+
 class DynamicProxyException(message: String) : RuntimeException(message)
\ No newline at end of file
@@ -25,9 +25,31 @@ import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedConstructor
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedField
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
 import java.lang.reflect.InvocationTargetException
+import java.util.concurrent.CopyOnWriteArrayList
+
+private val NO_PARAMETERS = arrayOf<Any?>()
 
 interface Executor {
     fun execute(instance: Any?, parameters: List<Any?>): Any?
+    fun execute(instance: Any?, parameters: Array<Any?>): Any? = execute(instance, parameters.asList())
+    fun execute0(instance: Any?): Any? = execute(instance, NO_PARAMETERS)
+    fun execute1(instance: Any?, parameter: Any?): Any? = execute(instance, arrayOf(parameter))
+    fun execute2(instance: Any?, parameter0: Any?, parameter1: Any?): Any? =
+        execute(instance, arrayOf(parameter0, parameter1))
+
+    fun execute3(instance: Any?, parameter0: Any?, parameter1: Any?, parameter2: Any?): Any? =
+        execute(instance, arrayOf(parameter0, parameter1, parameter2))
+
+    fun execute4(instance: Any?, parameter0: Any?, parameter1: Any?, parameter2: Any?, parameter3: Any?): Any? =
+        execute(instance, arrayOf(parameter0, parameter1, parameter2, parameter3))
+}
+
+abstract class ArrayBasedExecutor : Executor {
+    abstract override fun execute(instance: Any?, parameters: Array<Any?>): Any?
+
+    override fun execute(instance: Any?, parameters: List<Any?>): Any? {
+        return execute(instance, parameters.toTypedArray())
+    }
 }
 
 interface Setter {
@@ -38,16 +60,69 @@ interface Getter {
     fun get(instance: Any?): Any?
 }
 
+fun interface IntGetter {
+    fun getInt(instance: Any?): Int
+}
+
+fun interface LongGetter {
+    fun getLong(instance: Any?): Long
+}
+
+fun interface DoubleGetter {
+    fun getDouble(instance: Any?): Double
+}
+
+fun interface BooleanGetter {
+    fun getBoolean(instance: Any?): Boolean
+}
+
+fun interface IntSetter {
+    fun setInt(instance: Any?, value: Int)
+}
+
+fun interface LongSetter {
+    fun setLong(instance: Any?, value: Long)
+}
+
+fun interface DoubleSetter {
+    fun setDouble(instance: Any?, value: Double)
+}
+
+fun interface BooleanSetter {
+    fun setBoolean(instance: Any?, value: Boolean)
+}
+
 interface ExecutorFactory {
     fun createMethodExecutor(method: ResolvedMethod): Executor
     fun createConstructorExecutor(constructor: ResolvedConstructor): Executor
     fun createFieldGetter(field: ResolvedField): Getter
     fun createFieldSetter(field: ResolvedField): Setter
+    fun createIntFieldGetter(field: ResolvedField) = IntGetter { field.field.getInt(it) }
+    fun createLongFieldGetter(field: ResolvedField) = LongGetter { field.field.getLong(it) }
+    fun createDoubleFieldGetter(field: ResolvedField) = DoubleGetter { field.field.getDouble(it) }
+    fun createBooleanFieldGetter(field: ResolvedField) = BooleanGetter { field.field.getBoolean(it) }
+    fun createIntFieldSetter(field: ResolvedField) = IntSetter { instance, value -> field.field.setInt(instance, value) }
+    fun createLongFieldSetter(field: ResolvedField) = LongSetter { instance, value -> field.field.setLong(instance, value) }
+    fun createDoubleFieldSetter(field: ResolvedField) =
+        DoubleSetter { instance, value -> field.field.setDouble(instance, value) }
+
+    fun createBooleanFieldSetter(field: ResolvedField) =
+        BooleanSetter { instance, value -> field.field.setBoolean(instance, value) }
+
     fun <T> createDynamicProxyFactory(facadeInterface: ResolvedType, reflectMaid: ReflectMaid): ProxyFactory<T>
+    fun <T> createIndexedDynamicProxyFactory(
+        facadeInterface: ResolvedType,
+        reflectMaid: ReflectMaid
+    ): IndexedProxyFactory<T> = createDynamicProxyFactoryUsingInvocationHandler(facadeInterface, reflectMaid)
+
+    fun <T> createDecoratorFactory(
+        facadeInterface: ResolvedType,
+        reflectMaid: ReflectMaid
+    ): DecoratorFactory<T> = createDecoratorFactoryUsingInvocationHandler(facadeInterface)
 }
 
 class ReflectionExecutorFactory : ExecutorFactory {
-    private val registeredDynamicProxies = ArrayList<ResolvedType>()
+    private val registeredDynamicProxies = CopyOnWriteArrayList<ResolvedType>()
 
     override fun createMethodExecutor(method: ResolvedMethod) = ReflectionMethodExecutor(method)
     override fun createConstructorExecutor(constructor: ResolvedConstructor) =
@@ -59,6 +134,13 @@ class ReflectionExecutorFactory : ExecutorFactory {
         facadeInterface: ResolvedType,
         reflectMaid: ReflectMaid
     ): ProxyFactory<T> {
+        return createIndexedDynamicProxyFactory(facadeInterface, reflectMaid)
+    }
+
+    override fun <T> createIndexedDynamicProxyFactory(
+        facadeInterface: ResolvedType,
+        reflectMaid: ReflectMaid
+    ): IndexedProxyFactory<T> {
         registeredDynamicProxies.add(facadeInterface)
         return createDynamicProxyFactoryUsingInvocationHandler(facadeInterface, reflectMaid)
     }
@@ -68,11 +150,11 @@ class ReflectionExecutorFactory : ExecutorFactory {
     }
 }
 
-class ReflectionMethodExecutor(private val method: ResolvedMethod) : Executor {
+class ReflectionMethodExecutor(private val method: ResolvedMethod) : ArrayBasedExecutor() {
 
-    override fun execute(instance: Any?, parameters: List<Any?>): Any? {
+    override fun execute(instance: Any?, parameters: Array<Any?>): Any? {
         try {
-            return method.method.invoke(instance, *parameters.toTypedArray())
+            return ReflectiveInvocations.invoke(method.method, instance, parameters)
         } catch (e: InvocationTargetException) {
             throw handleInvocationTargetException(
                 e,
@@ -82,11 +164,11 @@ class ReflectionMethodExecutor(private val method: ResolvedMethod) : Executor {
     }
 }
 
-class ReflectionConstructorExecutor(private val constructor: ResolvedConstructor) : Executor {
+class ReflectionConstructorExecutor(private val constructor: ResolvedConstructor) : ArrayBasedExecutor() {
 
-    override fun execute(instance: Any?, parameters: List<Any?>): Any? {
+    override fun execute(instance: Any?, parameters: Array<Any?>): Any? {
         try {
-            return constructor.constructor.newInstance(*parameters.toTypedArray())
+            return ReflectiveInvocations.newInstance(constructor.constructor, parameters)
         } catch (e: InvocationTargetException) {
             throw handleInvocationTargetException(
                 e,
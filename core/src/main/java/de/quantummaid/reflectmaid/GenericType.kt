@@ -20,6 +20,7 @@
  */
 package de.quantummaid.reflectmaid
 
+import de.quantummaid.reflectmaid.resolvedtype.Cached
 import de.quantummaid.reflectmaid.resolvedtype.ClassType
 import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
 import java.lang.reflect.Type
@@ -95,7 +96,20 @@ data class GenericTypeFromClass<T>(val type: Class<*>,
 data class GenericTypeFromKClass<T : Any>(val kClass: KClass<*>,
                                           val typeVariables: List<GenericType<*>>) : GenericType<T>()
 
-data class GenericTypeFromToken<T>(val typeToken: TypeToken<T>) : GenericType<T>()
+data class GenericTypeFromToken<T>(val typeToken: TypeToken<T>) : GenericType<T>() {
+    private val tokenType = Cached { typeToken.javaClass.genericSuperclass }
+
+    override fun equals(other: Any?): Boolean {
+        if (other !is GenericTypeFromToken<*>) {
+            return false
+        }
+        return other.tokenType.get() == tokenType.get()
+    }
+
+    override fun hashCode(): Int {
+        return tokenType.get().hashCode()
+    }
+}
 
 class GenericTypeWildcard : GenericType<Any>() {
     override fun equals(other: Any?): Boolean {
@@ -109,4 +123,55 @@ class GenericTypeWildcard : GenericType<Any>() {
 
 data class GenericTypeFromResolvedType<T>(val resolvedType: ResolvedType) : GenericType<T>()
 
-data class GenericTypeFromReflectionType<T>(val type: Type, val genericContext: ClassType) : GenericType<T>()
\ No newline at end of file
+data class GenericTypeFromReflectionType<T>(val type: Type, val genericContext: ClassType) : GenericType<T>()
+
+internal data class GenericTypeFromClosedReflectionType<T>(val type: Type) : GenericType<T>()
+
+internal fun canonicalGenericType(genericType: GenericType<*>): GenericType<*> {
+    return when (genericType) {
+        is GenericTypeFromClass -> {
+            val typeVariables = canonicalTypeVariables(genericType.typeVariables)
+            if (typeVariables === genericType.typeVariables) {
+                genericType
+            } else {
+                GenericTypeFromClass<Any>(genericType.type, typeVariables)
+            }
+        }
+        is GenericTypeFromKClass -> {
+            val typeVariables = canonicalTypeVariables(genericType.typeVariables)
+            GenericTypeFromClass<Any>(genericType.kClass.java, typeVariables)
+        }
+        is GenericTypeFromReflectionType -> {
+            val type = genericType.type
+            if (isClosed(type)) {
+                closedGenericType(type)
+            } else {
+                genericType
+            }
+        }
+        is GenericTypeFromClosedReflectionType -> {
+            val type = genericType.type
+            if (type is Class<*>) {
+                closedGenericType(type)
+            } else {
+                genericType
+            }
+        }
+        else -> genericType
+    }
+}
+
+internal fun closedGenericType(type: Type): GenericType<*> {
+    return if (type is Class<*> && type.typeParameters.isEmpty()) {
+        GenericTypeFromClass<Any>(type, emptyList())
+    } else {
+        GenericTypeFromClosedReflectionType<Any>(type)
+    }
+}
+
+private fun canonicalTypeVariables(typeVariables: List<GenericType<*>>): List<GenericType<*>> {
+    if (typeVariables.all { canonicalGenericType(it) === it }) {
+        return typeVariables
+    }
+    return typeVariables.map { canonicalGenericType(it) }
+}
\ No newline at end of file
@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid
+
+import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
+import java.lang.invoke.LambdaMetafactory
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import kotlin.reflect.KClass
+
+private const val MAX_LAMBDA_PROXY_PARAMETERS = 5
+
+inline fun <reified T : Any> ReflectMaid.createLambdaProxyFactory(): ProxyFactory<T> {
+    val resolvedType = resolve<T>()
+    return createLambdaProxyFactory(resolvedType)
+}
+
+fun <T : Any> ReflectMaid.createLambdaProxyFactory(facadeInterface: Class<T>): ProxyFactory<T> {
+    val resolvedType = resolve(facadeInterface)
+    return createLambdaProxyFactory(resolvedType)
+}
+
+fun <T : Any> ReflectMaid.createLambdaProxyFactory(facadeInterface: KClass<T>): ProxyFactory<T> {
+    val resolvedType = resolve(facadeInterface)
+    return createLambdaProxyFactory(resolvedType)
+}
+
+/**
+ * Creates proxies of a single abstract method interface the way the compiler creates lambdas,
+ * using the [LambdaMetafactory]. Unlike the proxies of [createDynamicProxyFactory], they do not
+ * route [Object.toString], [Object.equals] and [Object.hashCode] to the handler.
+ * Interfaces that cannot be implemented as a lambda get a regular dynamic proxy factory.
+ */
+fun <T : Any> ReflectMaid.createLambdaProxyFactory(facadeInterface: ResolvedType): ProxyFactory<T> {
+    requireFacadeInterface(facadeInterface, "lambda proxy facade")
+    val implementation = LAMBDA_IMPLEMENTATIONS.get(facadeInterface.assignableType())
+        ?: return createDynamicProxyFactory(facadeInterface)
+    val method = (listOf(facadeInterface) + facadeInterface.allSupertypes())
+        .flatMap { it.methods() }
+        .firstOrNull { it.method == implementation.method }
+        ?: return createDynamicProxyFactory(facadeInterface)
+    return LambdaProxyFactory(method, implementation.constructor)
+}
+
+private class LambdaImplementation(val method: Method, val constructor: MethodHandle)
+
+/**
+ * The lambda class of every interface is only spun once.
+ */
+private val LAMBDA_IMPLEMENTATIONS = object : ClassValue<LambdaImplementation?>() {
+    override fun computeValue(type: Class<*>): LambdaImplementation? {
+        return createLambdaImplementation(type)
+    }
+}
+
+private fun createLambdaImplementation(facade: Class<*>): LambdaImplementation? {
+    val abstractMethods = facade.methods.filter { Modifier.isAbstract(it.modifiers) && !redeclaresObjectMethod(it) }
+    val method = abstractMethods.firstOrNull { candidate -> abstractMethods.all { overrides(candidate, it) } }
+    if (method == null || method.parameterCount > MAX_LAMBDA_PROXY_PARAMETERS) {
+        return null
+    }
+    val methodType = MethodType.methodType(method.returnType, method.parameterTypes)
+    val bridges = abstractMethods
+        .map { MethodType.methodType(it.returnType, it.parameterTypes) }
+        .distinct()
+        .filter { it != methodType }
+    val usedTypes = (bridges + methodType).flatMap { it.parameterList() + it.returnType() } + facade
+    if (!usedTypes.all { isAccessibleFromHere(it) }) {
+        return null
+    }
+    return LambdaImplementation(method, lambdaConstructor(facade, method.name, methodType, bridges))
+}
+
+// e.g. equals redeclared by the interface, which the lambda class inherits from Object
+private fun redeclaresObjectMethod(method: Method): Boolean {
+    return try {
+        Any::class.java.getMethod(method.name, *method.parameterTypes)
+        true
+    } catch (e: NoSuchMethodException) {
+        false
+    }
+}
+
+private fun overrides(method: Method, overridden: Method): Boolean {
+    if (method.name != overridden.name || method.parameterCount != overridden.parameterCount) {
+        return false
+    }
+    val parametersMatch = overridden.parameterTypes.zip(method.parameterTypes).all { (overriddenType, type) ->
+        overriddenType.isAssignableFrom(type)
+    }
+    val returnTypeMatches = if (overridden.returnType == Void.TYPE) {
+        method.returnType == Void.TYPE
+    } else {
+        overridden.returnType.isAssignableFrom(method.returnType)
+    }
+    return parametersMatch && returnTypeMatches
+}
+
+private fun isAccessibleFromHere(type: Class<*>): Boolean {
+    if (type.isPrimitive) {
+        return true
+    }
+    if (type.isArray) {
+        return isAccessibleFromHere(type.componentType)
+    }
+    if (!Modifier.isPublic(type.modifiers)) {
+        return false
+    }
+    return try {
+        Class.forName(type.name, false, LambdaProxyInvocation::class.java.classLoader) == type
+    } catch (e: ClassNotFoundException) {
+        false
+    }
+}
+
+/**
+ * Bridges are needed when the interface overrides a method of a generic super interface,
+ * so that calls through the super interface reach the lambda as well.
+ */
+private fun lambdaConstructor(
+    facade: Class<*>,
+    methodName: String,
+    methodType: MethodType,
+    bridges: List<MethodType>
+): MethodHandle {
+    val lookup = MethodHandles.lookup()
+    val arity = methodType.parameterCount()
+    val implementation = lookup.findVirtual(
+        LambdaProxyInvocation::class.java,
+        "invoke$arity",
+        MethodType.genericMethodType(arity)
+    )
+    val callSite = LambdaMetafactory.altMetafactory(
+        lookup,
+        methodName,
+        MethodType.methodType(facade, LambdaProxyInvocation::class.java),
+        methodType,
+        implementation,
+        methodType,
+        LambdaMetafactory.FLAG_BRIDGES,
+        bridges.size,
+        *bridges.toTypedArray()
+    )
+    return callSite.target.asType(MethodType.methodType(Any::class.java, LambdaProxyInvocation::class.java))
+}
+
+private class LambdaProxyFactory<T>(
+    private val method: ResolvedMethod,
+    private val constructor: MethodHandle
+) : ProxyFactory<T> {
+
+    @Suppress("UNCHECKED_CAST")
+    override fun createProxy(handler: ProxyHandler): T {
+        val invocation = LambdaProxyInvocation(handler, method)
+        val proxy: Any = constructor.invokeExact(invocation) as Any
+        return proxy as T
+    }
+}
+
+internal class LambdaProxyInvocation(
+    private val handler: ProxyHandler,
+    private val method: ResolvedMethod
+) {
+    fun invoke0(): Any? = handler.invoke(method, emptyList())
+
+    fun invoke1(a0: Any?): Any? = handler.invoke(method, LambdaProxyArguments(1, a0))
+
+    fun invoke2(a0: Any?, a1: Any?): Any? = handler.invoke(method, LambdaProxyArguments(2, a0, a1))
+
+    fun invoke3(a0: Any?, a1: Any?, a2: Any?): Any? = handler.invoke(method, LambdaProxyArguments(3, a0, a1, a2))
+
+    fun invoke4(a0: Any?, a1: Any?, a2: Any?, a3: Any?): Any? =
+        handler.invoke(method, LambdaProxyArguments(4, a0, a1, a2, a3))
+
+    fun invoke5(a0: Any?, a1: Any?, a2: Any?, a3: Any?, a4: Any?): Any? =
+        handler.invoke(method, LambdaProxyArguments(5, a0, a1, a2, a3, a4))
+}
+
+/**
+ * Holds the arguments in fields instead of an array, so that a call costs a single small allocation
+ * that escape analysis can remove once the handler is inlined.
+ */
+private class LambdaProxyArguments(
+    override val size: Int,
+    private val a0: Any?,
+    private val a1: Any? = null,
+    private val a2: Any? = null,
+    private val a3: Any? = null,
+    private val a4: Any? = null
+) : AbstractList<Any?>() {
+
+    override fun get(index: Int): Any? {
+        return when {
+            index < 0 || index >= size -> throw IndexOutOfBoundsException("index: $index, size: $size")
+            index == 0 -> a0
+            index == 1 -> a1
+            index == 2 -> a2
+            index == 3 -> a3
+            else -> a4
+        }
+    }
+}
\ No newline at end of file
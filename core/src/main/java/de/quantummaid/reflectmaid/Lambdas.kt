@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid
+
+import java.lang.invoke.LambdaMetafactory
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.invoke.MethodType.methodType
+import java.lang.reflect.Constructor
+import java.lang.reflect.Field
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.function.BiConsumer
+import java.util.function.Function
+import java.util.function.Supplier
+
+private val FUNCTION_TYPE = methodType(Any::class.java, Any::class.java)
+private val BI_CONSUMER_TYPE = methodType(Void.TYPE, Any::class.java, Any::class.java)
+private val SUPPLIER_TYPE = methodType(Any::class.java)
+
+internal fun createFunction(method: Method): Function<Any?, Any?> {
+    if (method.returnType == Void.TYPE || argumentCount(method) != 1) {
+        throw LambdaCreationException(
+            "method '${method.toGenericString()}' needs to take exactly one argument " +
+                    "(including its instance) and return a value to be used as a Function"
+        )
+    }
+    return createLambda(method.declaringClass, Function::class.java, "apply", FUNCTION_TYPE) {
+        it.unreflect(method)
+    }
+}
+
+internal fun createBiConsumer(method: Method): BiConsumer<Any?, Any?> {
+    if (argumentCount(method) != 2) {
+        throw LambdaCreationException(
+            "method '${method.toGenericString()}' needs to take exactly two arguments " +
+                    "(including its instance) to be used as a BiConsumer"
+        )
+    }
+    return createLambda(method.declaringClass, BiConsumer::class.java, "accept", BI_CONSUMER_TYPE) {
+        it.unreflect(method)
+    }
+}
+
+internal fun createSupplier(method: Method): Supplier<Any?> {
+    if (method.returnType == Void.TYPE || argumentCount(method) != 0) {
+        throw LambdaCreationException(
+            "method '${method.toGenericString()}' needs to be static, take no parameters " +
+                    "and return a value to be used as a Supplier"
+        )
+    }
+    return createLambda(method.declaringClass, Supplier::class.java, "get", SUPPLIER_TYPE) {
+        it.unreflect(method)
+    }
+}
+
+internal fun createSupplier(constructor: Constructor<*>): Supplier<Any?> {
+    if (constructor.parameterCount != 0) {
+        throw LambdaCreationException(
+            "constructor '${constructor.toGenericString()}' needs to take no parameters to be used as a Supplier"
+        )
+    }
+    return createLambda(constructor.declaringClass, Supplier::class.java, "get", SUPPLIER_TYPE) {
+        it.unreflectConstructor(constructor)
+    }
+}
+
+internal fun createGetterFunction(field: Field): Function<Any?, Any?> {
+    val getter = MethodHandleGetter(getterHandle(lookupFor(field.declaringClass), field))
+    return Function { getter.get(it) }
+}
+
+internal fun createSetterBiConsumer(field: Field): BiConsumer<Any?, Any?> {
+    val setter = MethodHandleSetter(setterHandle(lookupFor(field.declaringClass), field))
+    return BiConsumer { instance, value -> setter.set(instance, value) }
+}
+
+private fun argumentCount(method: Method): Int {
+    return if (Modifier.isStatic(method.modifiers)) {
+        method.parameterCount
+    } else {
+        method.parameterCount + 1
+    }
+}
+
+@Suppress("UNCHECKED_CAST")
+private fun <T> createLambda(
+    declaringClass: Class<*>,
+    functionalInterface: Class<*>,
+    methodName: String,
+    erasedType: MethodType,
+    implementation: (MethodHandles.Lookup) -> MethodHandle
+): T {
+    val lookup = lookupFor(declaringClass)
+    val implementationHandle = implementation(lookup)
+    val implementationType = implementationHandle.type().wrap()
+    val returnType = if (erasedType.returnType() == Void.TYPE) {
+        Void.TYPE
+    } else {
+        implementationType.returnType()
+    }
+    val instantiatedType = methodType(returnType, implementationType.parameterList())
+    val callSite = LambdaMetafactory.metafactory(
+        lookup,
+        methodName,
+        methodType(functionalInterface),
+        erasedType,
+        implementationHandle,
+        instantiatedType
+    )
+    return callSite.target.invoke() as T
+}
+
+// MethodHandles.privateLookupIn only exists since Java 9, on Java 8 the own lookup is used
+private val PRIVATE_LOOKUP_IN: MethodHandle? = try {
+    MethodHandles.publicLookup().findStatic(
+        MethodHandles::class.java,
+        "privateLookupIn",
+        methodType(MethodHandles.Lookup::class.java, Class::class.java, MethodHandles.Lookup::class.java)
+    )
+} catch (e: NoSuchMethodException) {
+    null
+}
+
+private fun lookupFor(declaringClass: Class<*>): MethodHandles.Lookup {
+    val privateLookupIn = PRIVATE_LOOKUP_IN ?: return MethodHandles.lookup()
+    return try {
+        privateLookupIn.invoke(declaringClass, MethodHandles.lookup()) as MethodHandles.Lookup
+    } catch (e: IllegalAccessException) {
+        MethodHandles.lookup()
+    }
+}
+
+class LambdaCreationException(message: String) : RuntimeException(message)
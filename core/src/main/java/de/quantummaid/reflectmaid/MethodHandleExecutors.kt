@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid
+
+import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedConstructor
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedField
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType.genericMethodType
+import java.lang.invoke.MethodType.methodType
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+
+private val EXECUTOR_TYPE = methodType(Any::class.java, Any::class.java, Array<Any?>::class.java)
+private val GETTER_TYPE = methodType(Any::class.java, Any::class.java)
+private val SETTER_TYPE = methodType(Void.TYPE, Any::class.java, Any::class.java)
+
+class MethodHandleExecutorFactory(
+    private val lookup: MethodHandles.Lookup = MethodHandles.lookup()
+) : ExecutorFactory {
+
+    override fun createMethodExecutor(method: ResolvedMethod): Executor {
+        val reflectionMethod = method.method
+        val handle = lookup.unreflect(reflectionMethod)
+        val instanceHandle = if (Modifier.isStatic(reflectionMethod.modifiers)) {
+            MethodHandles.dropArguments(handle, 0, Any::class.java)
+        } else {
+            handle
+        }
+        return MethodHandleExecutor(instanceHandle, reflectionMethod.parameterCount)
+    }
+
+    override fun createConstructorExecutor(constructor: ResolvedConstructor): Executor {
+        val reflectionConstructor = constructor.constructor
+        val handle = lookup.unreflectConstructor(reflectionConstructor)
+        val instanceHandle = MethodHandles.dropArguments(handle, 0, Any::class.java)
+        return MethodHandleExecutor(instanceHandle, reflectionConstructor.parameterCount)
+    }
+
+    override fun createFieldGetter(field: ResolvedField) = MethodHandleGetter(getterHandle(lookup, field.field))
+    override fun createFieldSetter(field: ResolvedField) = MethodHandleSetter(setterHandle(lookup, field.field))
+
+    override fun createIntFieldGetter(field: ResolvedField): IntGetter {
+        val handle = primitiveGetterHandle(lookup, field.field, Integer.TYPE)
+        return IntGetter { handle.invokeExact(it) as Int }
+    }
+
+    override fun createLongFieldGetter(field: ResolvedField): LongGetter {
+        val handle = primitiveGetterHandle(lookup, field.field, java.lang.Long.TYPE)
+        return LongGetter { handle.invokeExact(it) as Long }
+    }
+
+    override fun createDoubleFieldGetter(field: ResolvedField): DoubleGetter {
+        val handle = primitiveGetterHandle(lookup, field.field, java.lang.Double.TYPE)
+        return DoubleGetter { handle.invokeExact(it) as Double }
+    }
+
+    override fun createBooleanFieldGetter(field: ResolvedField): BooleanGetter {
+        val handle = primitiveGetterHandle(lookup, field.field, java.lang.Boolean.TYPE)
+        return BooleanGetter { handle.invokeExact(it) as Boolean }
+    }
+
+    override fun createIntFieldSetter(field: ResolvedField): IntSetter {
+        val handle = primitiveSetterHandle(lookup, field.field, Integer.TYPE)
+        return IntSetter { instance, value -> handle.invokeExact(instance, value) }
+    }
+
+    override fun createLongFieldSetter(field: ResolvedField): LongSetter {
+        val handle = primitiveSetterHandle(lookup, field.field, java.lang.Long.TYPE)
+        return LongSetter { instance, value -> handle.invokeExact(instance, value) }
+    }
+
+    override fun createDoubleFieldSetter(field: ResolvedField): DoubleSetter {
+        val handle = primitiveSetterHandle(lookup, field.field, java.lang.Double.TYPE)
+        return DoubleSetter { instance, value -> handle.invokeExact(instance, value) }
+    }
+
+    override fun createBooleanFieldSetter(field: ResolvedField): BooleanSetter {
+        val handle = primitiveSetterHandle(lookup, field.field, java.lang.Boolean.TYPE)
+        return BooleanSetter { instance, value -> handle.invokeExact(instance, value) }
+    }
+
+    override fun <T> createDynamicProxyFactory(
+        facadeInterface: ResolvedType,
+        reflectMaid: ReflectMaid
+    ): ProxyFactory<T> {
+        return createDynamicProxyFactoryUsingInvocationHandler(facadeInterface, reflectMaid)
+    }
+}
+
+internal fun getterHandle(lookup: MethodHandles.Lookup, field: Field): MethodHandle {
+    return instanceGetterHandle(lookup, field).asType(GETTER_TYPE)
+}
+
+internal fun setterHandle(lookup: MethodHandles.Lookup, field: Field): MethodHandle {
+    return instanceSetterHandle(lookup, field).asType(SETTER_TYPE)
+}
+
+private fun primitiveGetterHandle(lookup: MethodHandles.Lookup, field: Field, type: Class<*>): MethodHandle {
+    return instanceGetterHandle(lookup, field).asType(methodType(type, Any::class.java))
+}
+
+private fun primitiveSetterHandle(lookup: MethodHandles.Lookup, field: Field, type: Class<*>): MethodHandle {
+    return instanceSetterHandle(lookup, field).asType(methodType(Void.TYPE, Any::class.java, type))
+}
+
+private fun instanceGetterHandle(lookup: MethodHandles.Lookup, field: Field): MethodHandle {
+    val handle = lookup.unreflectGetter(field)
+    return if (Modifier.isStatic(field.modifiers)) {
+        MethodHandles.dropArguments(handle, 0, Any::class.java)
+    } else {
+        handle
+    }
+}
+
+private fun instanceSetterHandle(lookup: MethodHandles.Lookup, field: Field): MethodHandle {
+    val handle = lookup.unreflectSetter(field)
+    return if (Modifier.isStatic(field.modifiers)) {
+        MethodHandles.dropArguments(handle, 0, Any::class.java)
+    } else {
+        handle
+    }
+}
+
+class MethodHandleExecutor(handle: MethodHandle, private val parameterCount: Int) : ArrayBasedExecutor() {
+    private val genericHandle = handle.asType(genericMethodType(parameterCount + 1))
+    private val spreadHandle = genericHandle
+        .asSpreader(Array<Any?>::class.java, parameterCount)
+        .asType(EXECUTOR_TYPE)
+
+    override fun execute(instance: Any?, parameters: Array<Any?>): Any? {
+        return spreadHandle.invokeExact(instance, parameters)
+    }
+
+    override fun execute0(instance: Any?): Any? {
+        if (parameterCount != 0) {
+            return super.execute0(instance)
+        }
+        return genericHandle.invokeExact(instance)
+    }
+
+    override fun execute1(instance: Any?, parameter: Any?): Any? {
+        if (parameterCount != 1) {
+            return super.execute1(instance, parameter)
+        }
+        return genericHandle.invokeExact(instance, parameter)
+    }
+
+    override fun execute2(instance: Any?, parameter0: Any?, parameter1: Any?): Any? {
+        if (parameterCount != 2) {
+            return super.execute2(instance, parameter0, parameter1)
+        }
+        return genericHandle.invokeExact(instance, parameter0, parameter1)
+    }
+
+    override fun execute3(instance: Any?, parameter0: Any?, parameter1: Any?, parameter2: Any?): Any? {
+        if (parameterCount != 3) {
+            return super.execute3(instance, parameter0, parameter1, parameter2)
+        }
+        return genericHandle.invokeExact(instance, parameter0, parameter1, parameter2)
+    }
+
+    override fun execute4(
+        instance: Any?,
+        parameter0: Any?,
+        parameter1: Any?,
+        parameter2: Any?,
+        parameter3: Any?
+    ): Any? {
+        if (parameterCount != 4) {
+            return super.execute4(instance, parameter0, parameter1, parameter2, parameter3)
+        }
+        return genericHandle.invokeExact(instance, parameter0, parameter1, parameter2, parameter3)
+    }
+}
+
+class MethodHandleGetter(private val handle: MethodHandle) : Getter {
+    override fun get(instance: Any?): Any? {
+        return handle.invokeExact(instance)
+    }
+}
+
+class MethodHandleSetter(private val handle: MethodHandle) : Setter {
+    override fun set(instance: Any?, value: Any?) {
+        handle.invokeExact(instance, value)
+    }
+}
@@ -22,6 +22,10 @@ package de.quantummaid.reflectmaid
 
 import de.quantummaid.reflectmaid.resolvedtype.Cached
 import de.quantummaid.reflectmaid.resolvedtype.NullableCached
+import de.quantummaid.reflectmaid.resolvedtype.resolver.constructorTemplates
+import de.quantummaid.reflectmaid.resolvedtype.resolver.fieldTemplates
+import de.quantummaid.reflectmaid.resolvedtype.resolver.methodTemplates
+import java.util.concurrent.ConcurrentHashMap
 
 data class RawClass internal constructor(private val clazz: Class<*>) {
     private val genericSuperType = NullableCached { clazz.genericSuperclass }
@@ -41,6 +45,9 @@ data class RawClass internal constructor(private val clazz: Class<*>) {
     private val isLocalClass = Cached { clazz.isLocalClass }
     private val isAnnotation = Cached { clazz.isAnnotation }
     private val componentType = NullableCached { clazz.componentType }
+    private val methodTemplates = Cached { methodTemplates(declaredMethods()) }
+    private val constructorTemplates = Cached { constructorTemplates(declaredConstructors()) }
+    private val fieldTemplates = Cached { fieldTemplates(declaredFields()) }
 
     fun genericSuperType() = genericSuperType.get()
     fun genericInterfaces() = genericInterfaces.get()
@@ -59,6 +66,9 @@ data class RawClass internal constructor(private val clazz: Class<*>) {
     fun isLocalClass() = isLocalClass.get()
     fun isAnnotation() = isAnnotation.get()
     fun componentType() = componentType.get()
+    internal fun methodTemplates() = methodTemplates.get()
+    internal fun constructorTemplates() = constructorTemplates.get()
+    internal fun fieldTemplates() = fieldTemplates.get()
 
     fun wrappedClass() = clazz
 }
@@ -67,6 +77,8 @@ class RawClassCache private constructor(private val map: MutableMap<Class<*>, Ra
 
     companion object {
         internal fun rawTypeCache() = RawClassCache(LinkedHashMap())
+
+        internal fun concurrentRawTypeCache() = RawClassCache(ConcurrentHashMap())
     }
 
     internal fun rawClassFor(clazz: Class<*>): RawClass {
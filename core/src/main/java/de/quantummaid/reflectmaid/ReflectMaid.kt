@@ -22,7 +22,10 @@ package de.quantummaid.reflectmaid
 
 import de.quantummaid.reflectmaid.GenericType.Companion.fromReflectionType
 import de.quantummaid.reflectmaid.GenericType.Companion.genericType
+import de.quantummaid.reflectmaid.RawClassCache.Companion.concurrentRawTypeCache
 import de.quantummaid.reflectmaid.RawClassCache.Companion.rawTypeCache
+import de.quantummaid.reflectmaid.ReflectionCache.Companion.concurrentReflectionCache
+import de.quantummaid.reflectmaid.ReflectionCache.Companion.reflectionCache
 import de.quantummaid.reflectmaid.TypeVariableName.Companion.typeVariableName
 import de.quantummaid.reflectmaid.resolvedtype.ArrayType
 import de.quantummaid.reflectmaid.resolvedtype.ClassType
@@ -30,6 +33,7 @@ import de.quantummaid.reflectmaid.resolvedtype.ClassType.Companion.fromClassWith
 import de.quantummaid.reflectmaid.resolvedtype.ClassType.Companion.fromClassWithoutGenerics
 import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
 import de.quantummaid.reflectmaid.resolvedtype.WildcardedType
+import java.util.concurrent.ConcurrentHashMap
 import kotlin.reflect.KClass
 
 class ReflectMaid(
@@ -37,6 +41,7 @@ class ReflectMaid(
     internal val rawClassCache: RawClassCache,
     val executorFactory: ExecutorFactory
 ) {
+    private val typeTokenCallSites: MutableMap<Class<*>, ResolvedType> = ConcurrentHashMap()
 
     fun resolve(type: Class<*>): ResolvedType {
         val genericType = genericType(type)
@@ -54,7 +59,18 @@ class ReflectMaid(
     }
 
     fun resolve(genericType: GenericType<*>): ResolvedType {
-        return cache.lookUp(genericType) { resolveInternal(it) }
+        if (genericType !is GenericTypeFromToken) {
+            val canonicalGenericType = canonicalGenericType(genericType)
+            return cache.lookUp(canonicalGenericType) { resolveInternal(it) }
+        }
+        val callSite = genericType.typeToken.javaClass
+        val cached = typeTokenCallSites[callSite]
+        if (cached != null) {
+            return cached
+        }
+        val resolvedType = cache.lookUp(genericType) { resolveInternal(it) }
+        typeTokenCallSites[callSite] = resolvedType
+        return resolvedType
     }
 
     fun registeredTypes(): Collection<ResolvedType> {
@@ -80,6 +96,9 @@ class ReflectMaid(
                 val (type, context) = genericType
                 resolveType(this, type, context)
             }
+            is GenericTypeFromClosedReflectionType -> {
+                resolveType(this, genericType.type, null)
+            }
         }
     }
 
@@ -143,7 +162,18 @@ class ReflectMaid(
 
         @JvmStatic
         fun aReflectMaid(executorFactory: ExecutorFactory): ReflectMaid {
-            return ReflectMaid(ReflectionCache(), rawTypeCache(), executorFactory)
+            return ReflectMaid(reflectionCache(), rawTypeCache(), executorFactory)
+        }
+
+        @JvmStatic
+        fun aThreadSafeReflectMaid(): ReflectMaid {
+            val executorFactory = ReflectionExecutorFactory()
+            return aThreadSafeReflectMaid(executorFactory)
+        }
+
+        @JvmStatic
+        fun aThreadSafeReflectMaid(executorFactory: ExecutorFactory): ReflectMaid {
+            return ReflectMaid(concurrentReflectionCache(), concurrentRawTypeCache(), executorFactory)
         }
     }
 }
@@ -21,23 +21,126 @@
 package de.quantummaid.reflectmaid
 
 import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
+import java.util.Collections.unmodifiableCollection
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
 
-class ReflectionCache {
+interface ReflectionCache {
+    fun lookUp(genericType: GenericType<*>, default: (GenericType<*>) -> ResolvedType): ResolvedType
+
+    fun registeredResolvedTypes(): Collection<ResolvedType>
+
+    companion object {
+        @JvmStatic
+        fun reflectionCache(): ReflectionCache {
+            return SingleThreadedReflectionCache()
+        }
+
+        @JvmStatic
+        fun concurrentReflectionCache(): ReflectionCache {
+            return ConcurrentReflectionCache()
+        }
+    }
+}
+
+class SingleThreadedReflectionCache : ReflectionCache {
     private val map: MutableMap<GenericType<*>, ResolvedType> = LinkedHashMap()
+    private val canonicalTypes = CanonicalResolvedTypes(LinkedHashMap())
 
-    fun lookUp(genericType: GenericType<*>, default: (GenericType<*>) -> ResolvedType): ResolvedType {
-        if (map.containsKey(genericType)) {
-            return map[genericType]!!
+    override fun lookUp(genericType: GenericType<*>, default: (GenericType<*>) -> ResolvedType): ResolvedType {
+        val cached = map[genericType]
+        if (cached != null) {
+            return cached
         }
         val newResolvedType = default.invoke(genericType)
-        val resolvedTypeToBePutInMap = findInValues(newResolvedType) ?: newResolvedType
+        val resolvedTypeToBePutInMap = canonicalTypes.canonicalize(newResolvedType)
         map[genericType] = resolvedTypeToBePutInMap
         return resolvedTypeToBePutInMap
     }
 
-    fun registeredResolvedTypes(): Collection<ResolvedType> = map.values.distinct()
+    override fun registeredResolvedTypes(): Collection<ResolvedType> = canonicalTypes.all()
+}
+
+class ConcurrentReflectionCache : ReflectionCache {
+    private val map = ConcurrentHashMap<GenericType<*>, Any>()
+    private val canonicalTypes = CanonicalResolvedTypes(ConcurrentHashMap())
+
+    override fun lookUp(genericType: GenericType<*>, default: (GenericType<*>) -> ResolvedType): ResolvedType {
+        while (true) {
+            val cached = map[genericType]
+            if (cached is ResolvedType) {
+                return cached
+            }
+            if (cached is PendingResolution) {
+                val resolvedByOtherThread = cached.await(genericType)
+                if (resolvedByOtherThread != null) {
+                    return resolvedByOtherThread
+                }
+                continue
+            }
+            val pendingResolution = PendingResolution()
+            if (map.putIfAbsent(genericType, pendingResolution) == null) {
+                return resolve(genericType, pendingResolution, default)
+            }
+        }
+    }
+
+    override fun registeredResolvedTypes(): Collection<ResolvedType> = canonicalTypes.all()
+
+    private fun resolve(
+        genericType: GenericType<*>,
+        pendingResolution: PendingResolution,
+        default: (GenericType<*>) -> ResolvedType
+    ): ResolvedType {
+        val resolvedType = try {
+            val newResolvedType = default.invoke(genericType)
+            canonicalTypes.canonicalize(newResolvedType)
+        } catch (e: Throwable) {
+            map.remove(genericType, pendingResolution)
+            pendingResolution.complete(null)
+            throw e
+        }
+        map[genericType] = resolvedType
+        pendingResolution.complete(resolvedType)
+        return resolvedType
+    }
+}
+
+private data class StructuralKey(
+    val kind: Class<*>,
+    val type: Class<*>,
+    val typeParameters: List<ResolvedType>
+)
+
+private fun structuralKeyOf(resolvedType: ResolvedType): StructuralKey {
+    return StructuralKey(resolvedType.javaClass, resolvedType.assignableType(), resolvedType.typeParameters())
+}
+
+private class CanonicalResolvedTypes(private val map: MutableMap<StructuralKey, ResolvedType>) {
+
+    fun canonicalize(resolvedType: ResolvedType): ResolvedType {
+        val key = structuralKeyOf(resolvedType)
+        return map.putIfAbsent(key, resolvedType) ?: resolvedType
+    }
+
+    fun all(): Collection<ResolvedType> = unmodifiableCollection(map.values)
+}
+
+private class PendingResolution {
+    private val owner = Thread.currentThread()
+    private val latch = CountDownLatch(1)
+
+    @Volatile
+    private var result: ResolvedType? = null
+
+    fun complete(resolvedType: ResolvedType?) {
+        result = resolvedType
+        latch.countDown()
+    }
 
-    private fun findInValues(resolvedType: ResolvedType): ResolvedType? {
-        return map.values.find { it == resolvedType }
+    fun await(genericType: GenericType<*>): ResolvedType? {
+        check(owner !== Thread.currentThread()) { "recursive resolution of generic type $genericType" }
+        latch.await()
+        return result
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.reflectmaid;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Passes a parameter array to reflective calls as it is. A Kotlin spread operator would copy it on every call.
+ */
+final class ReflectiveInvocations {
+
+    private ReflectiveInvocations() {
+    }
+
+    static Object invoke(final Method method, final Object instance, final Object[] parameters)
+            throws IllegalAccessException, InvocationTargetException {
+        return method.invoke(instance, parameters);
+    }
+
+    static Object newInstance(final Constructor<?> constructor, final Object[] parameters)
+            throws InstantiationException, IllegalAccessException, InvocationTargetException {
+        return constructor.newInstance(parameters);
+    }
+}
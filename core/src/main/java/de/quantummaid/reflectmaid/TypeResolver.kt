@@ -33,11 +33,11 @@ import java.lang.reflect.*
 internal fun resolveType(
     reflectMaid: ReflectMaid,
     type: Type,
-    context: ClassType
+    context: ClassType?
 ): ResolvedType {
     return when (type) {
         is Class<*> -> resolveClass(reflectMaid, type)
-        is TypeVariable<*> -> resolveTypeVariable(type, context)
+        is TypeVariable<*> -> resolveTypeVariable(type, checkNotNull(context))
         is ParameterizedType -> resolveParameterizedType(reflectMaid, type, context)
         is GenericArrayType -> resolveGenericArrayType(reflectMaid, type, context)
         is WildcardType -> resolveWildcard(reflectMaid, type, context)
@@ -79,14 +79,20 @@ private fun resolveTypeVariable(
 private fun resolveParameterizedType(
     reflectMaid: ReflectMaid,
     parameterizedType: ParameterizedType,
-    context: ClassType
+    context: ClassType?
 ): ResolvedType {
     val rawType = reflectMaid.rawClassCache.rawClassFor(parameterizedType.rawType as Class<*>)
     val typeVariableNames = rawType.typeParameters().map { typeVariableName(it) }
     val actualTypeArguments = parameterizedType.actualTypeArguments
     val typeParameters: MutableMap<TypeVariableName, ResolvedType> = HashMap(actualTypeArguments.size)
     for (i in actualTypeArguments.indices) {
-        val resolvedTypeArgument = reflectMaid.resolve(fromReflectionType<Any>(actualTypeArguments[i], context))
+        val typeArgument = actualTypeArguments[i]
+        val genericTypeArgument = if (context == null) {
+            closedGenericType(typeArgument)
+        } else {
+            fromReflectionType<Any>(typeArgument, context)
+        }
+        val resolvedTypeArgument = reflectMaid.resolve(genericTypeArgument)
         val name = typeVariableNames[i]
         typeParameters[name] = resolvedTypeArgument
     }
@@ -96,7 +102,7 @@ private fun resolveParameterizedType(
 private fun resolveGenericArrayType(
     reflectMaid: ReflectMaid,
     genericArrayType: GenericArrayType,
-    context: ClassType
+    context: ClassType?
 ): ArrayType {
     val componentType = genericArrayType.genericComponentType
     val fullComponentType = resolveType(reflectMaid, componentType, context)
@@ -106,7 +112,7 @@ private fun resolveGenericArrayType(
 private fun resolveWildcard(
     reflectMaid: ReflectMaid,
     type: WildcardType,
-    context: ClassType
+    context: ClassType?
 ): ResolvedType {
     return if (type.lowerBounds.isEmpty() && type.upperBounds.size == 1) {
         val upperBound = type.upperBounds[0]
@@ -116,4 +122,32 @@ private fun resolveWildcard(
     }
 }
 
+internal fun isClosed(type: Type): Boolean {
+    return when (type) {
+        is Class<*> -> true
+        is ParameterizedType -> type.actualTypeArguments.all { isClosed(it) }
+        is GenericArrayType -> isClosed(type.genericComponentType)
+        is WildcardType -> if (type.lowerBounds.isEmpty() && type.upperBounds.size == 1) {
+            isClosed(type.upperBounds[0])
+        } else {
+            true
+        }
+        else -> false
+    }
+}
+
+internal fun typeVariablesIn(type: Type): List<TypeVariableName> {
+    return when (type) {
+        is TypeVariable<*> -> listOf(typeVariableName(type))
+        is ParameterizedType -> type.actualTypeArguments.flatMap { typeVariablesIn(it) }
+        is GenericArrayType -> typeVariablesIn(type.genericComponentType)
+        is WildcardType -> if (type.lowerBounds.isEmpty() && type.upperBounds.size == 1) {
+            typeVariablesIn(type.upperBounds[0])
+        } else {
+            emptyList()
+        }
+        else -> emptyList()
+    }
+}
+
 class UnsupportedJvmFeatureInTypeException(message: String) : UnsupportedOperationException(message)
\ No newline at end of file
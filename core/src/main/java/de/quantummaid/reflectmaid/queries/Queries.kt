@@ -93,8 +93,9 @@ class MethodQueryPathElement<ReturnType>(
                 byName.filter { it.returnType == null }
             } else {
                 byName.filter {
-                    it.returnType == resolvedReturnType
-                            || (it.returnType != null && resolvedReturnType in it.returnType.allSupertypes())
+                    val methodReturnType = it.returnType
+                    methodReturnType == resolvedReturnType
+                            || (methodReturnType != null && resolvedReturnType in methodReturnType.allSupertypes())
                 }
             }
         } else {
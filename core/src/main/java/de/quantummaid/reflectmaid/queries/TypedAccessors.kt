@@ -74,7 +74,7 @@ private class TypedFieldGetter<T>(private val raw: Getter, previous: TypedGetter
 private class TypedMethodGetter<T>(private val raw: Executor, previous: TypedGetter<*>?) : TypedGetter<T>(previous) {
 
     override fun rawGet(instance: Any?): Any? {
-        return raw.execute(instance, emptyList())
+        return raw.execute0(instance)
     }
 }
 
@@ -127,6 +127,6 @@ private class TypedMethodSetter<T>(private val raw: Executor, previous: TypedGet
 
     @Suppress("UNCHECKED_CAST")
     override fun rawSet(instance: Any?, value: T?) {
-        raw.execute(instance, listOf(value))
+        raw.execute1(instance, value)
     }
 }
\ No newline at end of file
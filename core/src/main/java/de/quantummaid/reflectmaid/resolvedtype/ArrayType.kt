@@ -29,6 +29,7 @@ data class ArrayType(
     private val componentType: ResolvedType,
     private val reflectMaid: ReflectMaid
 ) : ResolvedType {
+    private val structuralHashCode = 31 * componentType.hashCode() + reflectMaid.hashCode()
     private val assignableType = Cached { Array.newInstance(componentType.assignableType(), 0).javaClass }
     private val directSuperClass = Cached { reflectMaid.resolve(Any::class.java) }
     private val directInterfaces = Cached {
@@ -56,4 +57,21 @@ data class ArrayType(
     override fun assignableType() = assignableType.get()
     override fun directSuperClass() = directSuperClass.get()
     override fun directInterfaces() = directInterfaces.get()
+
+    override fun equals(other: Any?): Boolean {
+        if (other === this) {
+            return true
+        }
+        if (other !is ArrayType) {
+            return false
+        }
+        if (other.structuralHashCode != structuralHashCode) {
+            return false
+        }
+        return other.componentType == componentType && other.reflectMaid == reflectMaid
+    }
+
+    override fun hashCode(): Int {
+        return structuralHashCode
+    }
 }
\ No newline at end of file
@@ -20,37 +20,69 @@
  */
 package de.quantummaid.reflectmaid.resolvedtype
 
-class IndexedCached<I, T>(private val supplier: (I) -> T) {
-    private val map = mutableMapOf<I, T>()
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Concurrent calls for the same index may compute the value more than once, but all of them
+ * return the value published first.
+ */
+class IndexedCached<I : Any, T : Any>(private val supplier: (I) -> T) {
+    private val map = ConcurrentHashMap<I, T>()
 
     fun get(index: I): T {
-        return map.computeIfAbsent(index, supplier)
+        val cached = map[index]
+        if (cached != null) {
+            return cached
+        }
+        val value = supplier.invoke(index)
+        return map.putIfAbsent(index, value) ?: value
     }
 }
 
-private class NullableCacheValue<T>(val value: T?)
-
-class NullableCached<T>(private val supplier: () -> T?) {
-    private val delegate: Cached<NullableCacheValue<T>> = Cached {
-        val value = supplier.invoke()
-        NullableCacheValue(value)
-    }
+class NullableCached<T>(supplier: () -> T?) {
+    private val delegate: Cached<T?> = Cached(supplier)
 
-    fun get() = delegate.get().value
+    fun get() = delegate.get()
 }
 
+/**
+ * Computes its value once. Threads calling [get] while another thread computes the value wait for it,
+ * a recursive call from the computing thread computes it again but the value published first is kept.
+ * Once published, reads take no lock.
+ */
 class Cached<T>(private val supplier: () -> T) {
-    private var cached: T? = null
+    @Volatile
+    private var value: Any? = UNINITIALIZED
 
+    @Suppress("UNCHECKED_CAST")
     fun get(): T {
-        if (cached == null) {
-            cached = supplier.invoke()
+        val current = value
+        if (current !== UNINITIALIZED) {
+            return current as T
+        }
+        synchronized(this) {
+            val publishedWhileWaiting = value
+            if (publishedWhileWaiting !== UNINITIALIZED) {
+                return publishedWhileWaiting as T
+            }
+            val computed = supplier.invoke()
+            val publishedRecursively = value
+            if (publishedRecursively !== UNINITIALIZED) {
+                return publishedRecursively as T
+            }
+            value = computed
+            return computed
         }
-        return cached!!
     }
 
+    @Suppress("UNCHECKED_CAST")
     fun cached(): T? {
-        return cached
+        val current = value
+        return if (current === UNINITIALIZED) {
+            null
+        } else {
+            current as T
+        }
     }
 
     override fun equals(other: Any?): Boolean {
@@ -60,4 +92,8 @@ class Cached<T>(private val supplier: () -> T) {
     override fun hashCode(): Int {
         return 0
     }
+
+    companion object {
+        private val UNINITIALIZED = Any()
+    }
 }
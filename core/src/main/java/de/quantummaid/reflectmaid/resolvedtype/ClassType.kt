@@ -31,6 +31,7 @@ import de.quantummaid.reflectmaid.languages.Language.Companion.JAVA
 import de.quantummaid.reflectmaid.languages.Language.Companion.KOTLIN
 import de.quantummaid.reflectmaid.queries.QueryPath
 import de.quantummaid.reflectmaid.resolvedtype.UnresolvableTypeVariableException.Companion.unresolvableTypeVariableException
+import de.quantummaid.reflectmaid.resolvedtype.resolver.MemberFilter
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedConstructor
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedConstructor.Companion.resolveConstructors
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedField
@@ -46,6 +47,7 @@ class ClassType(
     private val typeParameters: Map<TypeVariableName, ResolvedType>,
     private val reflectMaid: ReflectMaid
 ) : ResolvedType {
+    private val structuralHashCode = 31 * raw.hashCode() + typeParameters.hashCode()
     private val typeParametersList = Cached {
         raw
             .typeParameters()
@@ -55,6 +57,15 @@ class ClassType(
     private val methods = Cached { resolveMethodsWithResolvableTypeVariables(reflectMaid, this, raw, language()) }
     private val constructors = Cached { resolveConstructors(reflectMaid, this, raw) }
     private val fields = Cached { resolvedFields(reflectMaid, this, raw) }
+    private val filteredMethods = IndexedCached<MemberFilter, List<ResolvedMethod>> { filter ->
+        methods().filter { filter.accepts(it.method) }
+    }
+    private val filteredConstructors = IndexedCached<MemberFilter, List<ResolvedConstructor>> { filter ->
+        constructors().filter { filter.accepts(it.constructor) }
+    }
+    private val filteredFields = IndexedCached<MemberFilter, List<ResolvedField>> { filter ->
+        fields().filter { filter.accepts(it.field) }
+    }
     private val sealedSubclasses = Cached { resolveSealedSubclasses(this, reflectMaid) }
     private val directSuperClass = NullableCached {
         raw.genericSuperType()
@@ -111,6 +122,10 @@ class ClassType(
         return typeParameters[name]!!
     }
 
+    internal fun canResolveTypeVariable(name: TypeVariableName): Boolean {
+        return typeParameters.containsKey(name)
+    }
+
     fun resolveTypeVariable(name: TypeVariableName): ResolvedType {
         if (!typeParameters.containsKey(name)) {
             throw unresolvableTypeVariableException(name)
@@ -134,6 +149,9 @@ class ClassType(
     override fun methods() = methods.get()
     override fun constructors() = constructors.get()
     override fun fields() = fields.get()
+    override fun methods(filter: MemberFilter) = filteredMethods.get(filter)
+    override fun constructors(filter: MemberFilter) = filteredConstructors.get(filter)
+    override fun fields(filter: MemberFilter) = filteredFields.get(filter)
     override fun sealedSubclasses() = sealedSubclasses.get()
     override fun directSuperClass() = directSuperClass.get()
     override fun directInterfaces() = directInterfaces.get()
@@ -182,6 +200,9 @@ class ClassType(
     }
 
     override fun equals(other: Any?): Boolean {
+        if (other === this) {
+            return true
+        }
         if (other == null) {
             return false
         }
@@ -191,6 +212,9 @@ class ClassType(
         if (other.reflectMaid != reflectMaid) {
             throw ComparingTypesOfDifferentReflectMaidsException(this, other)
         }
+        if (other.structuralHashCode != structuralHashCode) {
+            return false
+        }
         if (other.raw != raw) {
             return false
         }
@@ -198,7 +222,7 @@ class ClassType(
     }
 
     override fun hashCode(): Int {
-        return raw.hashCode()
+        return structuralHashCode
     }
 }
 
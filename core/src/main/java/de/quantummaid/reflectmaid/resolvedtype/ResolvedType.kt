@@ -23,6 +23,7 @@ package de.quantummaid.reflectmaid.resolvedtype
 import de.quantummaid.reflectmaid.languages.Language
 import de.quantummaid.reflectmaid.languages.Language.Companion.JAVA
 import de.quantummaid.reflectmaid.queries.QueryPath
+import de.quantummaid.reflectmaid.resolvedtype.resolver.MemberFilter
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedConstructor
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedField
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
@@ -47,6 +48,9 @@ interface ResolvedType {
     fun methods(): List<ResolvedMethod> = emptyList()
     fun constructors(): List<ResolvedConstructor> = emptyList()
     fun fields(): List<ResolvedField> = emptyList()
+    fun methods(filter: MemberFilter): List<ResolvedMethod> = emptyList()
+    fun constructors(filter: MemberFilter): List<ResolvedConstructor> = emptyList()
+    fun fields(filter: MemberFilter): List<ResolvedField> = emptyList()
     fun sealedSubclasses(): List<ResolvedType> = emptyList()
     fun directSuperClass(): ResolvedType?
     fun directInterfaces(): List<ResolvedType>
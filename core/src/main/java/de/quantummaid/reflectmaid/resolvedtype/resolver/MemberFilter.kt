@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.resolvedtype.resolver
+
+import java.lang.reflect.Constructor
+import java.lang.reflect.Field
+import java.lang.reflect.Member
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+
+data class MemberFilter(
+    val onlyPublic: Boolean,
+    val names: Set<String>?,
+    val staticMembers: Boolean,
+    val instanceMembers: Boolean,
+    val defaultMethods: Boolean
+) {
+
+    companion object {
+        @JvmStatic
+        fun allMembers(): MemberFilter {
+            return MemberFilter(
+                onlyPublic = false,
+                names = null,
+                staticMembers = true,
+                instanceMembers = true,
+                defaultMethods = true
+            )
+        }
+
+        @JvmStatic
+        fun publicMembers(): MemberFilter {
+            return allMembers().onlyPublic()
+        }
+    }
+
+    fun onlyPublic() = copy(onlyPublic = true)
+    fun named(vararg names: String) = copy(names = names.toSet())
+    fun onlyStatic() = copy(staticMembers = true, instanceMembers = false)
+    fun onlyInstance() = copy(staticMembers = false, instanceMembers = true)
+    fun withoutDefaultMethods() = copy(defaultMethods = false)
+
+    internal fun accepts(method: Method): Boolean {
+        if (!defaultMethods && method.isDefault) {
+            return false
+        }
+        return acceptsName(method.name) && acceptsModifiers(method)
+    }
+
+    internal fun accepts(field: Field): Boolean {
+        return acceptsName(field.name) && acceptsModifiers(field)
+    }
+
+    internal fun accepts(constructor: Constructor<*>): Boolean {
+        return acceptsModifiers(constructor)
+    }
+
+    private fun acceptsName(name: String): Boolean {
+        return names == null || names.contains(name)
+    }
+
+    private fun acceptsModifiers(member: Member): Boolean {
+        val modifiers = member.modifiers
+        if (onlyPublic && !Modifier.isPublic(modifiers)) {
+            return false
+        }
+        return if (Modifier.isStatic(modifiers)) {
+            staticMembers
+        } else {
+            instanceMembers
+        }
+    }
+}
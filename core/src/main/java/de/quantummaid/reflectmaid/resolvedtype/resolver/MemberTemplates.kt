@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.resolvedtype.resolver
+
+import de.quantummaid.reflectmaid.GenericType
+import de.quantummaid.reflectmaid.GenericType.Companion.fromReflectionType
+import de.quantummaid.reflectmaid.GenericType.Companion.fromResolvedType
+import de.quantummaid.reflectmaid.GenericType.Companion.genericType
+import de.quantummaid.reflectmaid.ReflectMaid
+import de.quantummaid.reflectmaid.TypeVariableName
+import de.quantummaid.reflectmaid.TypeVariableName.Companion.typeVariableName
+import de.quantummaid.reflectmaid.closedGenericType
+import de.quantummaid.reflectmaid.isClosed
+import de.quantummaid.reflectmaid.typeVariablesIn
+import de.quantummaid.reflectmaid.resolvedtype.ArrayType
+import de.quantummaid.reflectmaid.resolvedtype.ClassType
+import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
+import java.lang.reflect.*
+
+internal class TypeTemplate private constructor(
+    type: Type,
+    private val slot: TypeSlot
+) {
+    val typeVariables: List<TypeVariableName> = typeVariablesIn(type)
+
+    fun resolve(reflectMaid: ReflectMaid, context: ClassType): ResolvedType {
+        return slot.resolve(reflectMaid, context)
+    }
+
+    companion object {
+        fun typeTemplate(type: Type): TypeTemplate {
+            return TypeTemplate(type, typeSlot(type))
+        }
+    }
+}
+
+/**
+ * The structure of a member's type, compiled once per raw class. Closed parts are resolved as they are,
+ * only the positions of type variables are filled in from the context of each parameterization.
+ */
+internal sealed class TypeSlot {
+    abstract fun resolve(reflectMaid: ReflectMaid, context: ClassType): ResolvedType
+}
+
+private class ClosedTypeSlot(private val genericType: GenericType<*>) : TypeSlot() {
+    override fun resolve(reflectMaid: ReflectMaid, context: ClassType): ResolvedType {
+        return reflectMaid.resolve(genericType)
+    }
+}
+
+private class TypeVariableSlot(private val name: TypeVariableName) : TypeSlot() {
+    override fun resolve(reflectMaid: ReflectMaid, context: ClassType): ResolvedType {
+        return context.resolveTypeVariable(name)
+    }
+}
+
+private class ParameterizedTypeSlot(private val rawType: Class<*>, private val typeArguments: List<TypeSlot>) :
+    TypeSlot() {
+    override fun resolve(reflectMaid: ReflectMaid, context: ClassType): ResolvedType {
+        val resolvedTypeArguments = typeArguments.map { fromResolvedType<Any>(it.resolve(reflectMaid, context)) }
+        return reflectMaid.resolve(genericType<Any>(rawType, resolvedTypeArguments))
+    }
+}
+
+private class ArrayTypeSlot(private val componentType: TypeSlot) : TypeSlot() {
+    override fun resolve(reflectMaid: ReflectMaid, context: ClassType): ResolvedType {
+        val resolvedComponentType = componentType.resolve(reflectMaid, context)
+        return reflectMaid.resolve(fromResolvedType<Any>(ArrayType(resolvedComponentType, reflectMaid)))
+    }
+}
+
+private class ReflectionTypeSlot(private val type: Type) : TypeSlot() {
+    override fun resolve(reflectMaid: ReflectMaid, context: ClassType): ResolvedType {
+        return reflectMaid.resolve(fromReflectionType<Any>(type, context))
+    }
+}
+
+private fun typeSlot(type: Type): TypeSlot {
+    if (isClosed(type)) {
+        return ClosedTypeSlot(closedGenericType(type))
+    }
+    return when (type) {
+        is TypeVariable<*> -> TypeVariableSlot(typeVariableName(type))
+        is ParameterizedType -> ParameterizedTypeSlot(
+            type.rawType as Class<*>,
+            type.actualTypeArguments.map { typeSlot(it) }
+        )
+        is GenericArrayType -> ArrayTypeSlot(typeSlot(type.genericComponentType))
+        // only wildcards with a single upper bound can be open, they resolve to that bound
+        is WildcardType -> typeSlot(type.upperBounds[0])
+        else -> ReflectionTypeSlot(type)
+    }
+}
+
+internal class ParameterTemplate(val parameter: Parameter, val type: TypeTemplate)
+
+internal class MethodTemplate(
+    val method: Method,
+    val returnType: TypeTemplate?,
+    val parameters: List<ParameterTemplate>
+) {
+    val typeVariables: Set<TypeVariableName> = (listOfNotNull(returnType) + parameters.map { it.type })
+        .flatMap { it.typeVariables }
+        .toSet()
+}
+
+internal class ConstructorTemplate(val constructor: Constructor<*>, val parameters: List<ParameterTemplate>)
+
+internal class FieldTemplate(val field: Field, val type: TypeTemplate)
+
+internal fun methodTemplates(methods: Array<Method>): List<MethodTemplate> {
+    return methods
+        .filter { !it.isSynthetic }
+        .map {
+            val genericReturnType = it.genericReturnType
+            val returnType = if (genericReturnType !== Void.TYPE) {
+                TypeTemplate.typeTemplate(genericReturnType)
+            } else {
+                null
+            }
+            MethodTemplate(it, returnType, parameterTemplates(it))
+        }
+}
+
+internal fun constructorTemplates(constructors: Array<Constructor<*>>): List<ConstructorTemplate> {
+    return constructors
+        .filter { !it.isSynthetic }
+        .map { ConstructorTemplate(it, parameterTemplates(it)) }
+}
+
+internal fun fieldTemplates(fields: Array<Field>): List<FieldTemplate> {
+    return fields
+        .filter { !it.isSynthetic }
+        .map { FieldTemplate(it, TypeTemplate.typeTemplate(it.genericType)) }
+}
+
+private fun parameterTemplates(executable: Executable): List<ParameterTemplate> {
+    return executable.parameters.map { ParameterTemplate(it, TypeTemplate.typeTemplate(it.parameterizedType)) }
+}
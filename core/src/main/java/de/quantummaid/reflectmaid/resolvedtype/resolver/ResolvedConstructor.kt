@@ -21,6 +21,7 @@
 package de.quantummaid.reflectmaid.resolvedtype.resolver
 
 import de.quantummaid.reflectmaid.ReflectMaid
+import de.quantummaid.reflectmaid.createSupplier
 import de.quantummaid.reflectmaid.resolvedtype.Cached
 import de.quantummaid.reflectmaid.resolvedtype.ClassType
 import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
@@ -28,25 +29,56 @@ import de.quantummaid.reflectmaid.RawClass
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedParameter.Companion.resolveParameters
 import java.lang.reflect.Constructor
 import java.lang.reflect.Modifier
+import java.util.function.Supplier
 
-data class ResolvedConstructor(
-    val parameters: List<ResolvedParameter>,
+class ResolvedConstructor internal constructor(
+    private val resolvedParameters: Cached<List<ResolvedParameter>>,
     val declaringType: ResolvedType,
     val constructor: Constructor<*>,
     val reflectMaid: ReflectMaid
 ) {
+    constructor(
+        parameters: List<ResolvedParameter>,
+        declaringType: ResolvedType,
+        constructor: Constructor<*>,
+        reflectMaid: ReflectMaid
+    ) : this(Cached { parameters }, declaringType, constructor, reflectMaid)
+
+    val parameters: List<ResolvedParameter>
+        get() = resolvedParameters.get()
     private val isPublic = Cached {
         val modifiers = constructor.modifiers
         Modifier.isPublic(modifiers)
     }
     private val description = Cached { constructor.toGenericString() }
     private val executor = Cached { reflectMaid.executorFactory.createConstructorExecutor(this) }
+    private val supplier = Cached { createSupplier(constructor) }
 
     fun isPublic() = isPublic.get()
 
     fun describe() = description.get()
 
     fun createExecutor() = executor.get()
+    fun createSupplier(): Supplier<Any?> = supplier.get()
+
+    override fun equals(other: Any?): Boolean {
+        if (other === this) {
+            return true
+        }
+        if (other !is ResolvedConstructor) {
+            return false
+        }
+        return other.constructor == constructor && other.declaringType == declaringType
+    }
+
+    override fun hashCode(): Int {
+        return 31 * constructor.hashCode() + declaringType.hashCode()
+    }
+
+    override fun toString(): String {
+        return "ResolvedConstructor(parameters=$parameters, declaringType=$declaringType, " +
+                "constructor=$constructor, reflectMaid=$reflectMaid)"
+    }
 
     companion object {
         fun resolveConstructors(
@@ -54,11 +86,10 @@ data class ResolvedConstructor(
             fullType: ClassType,
             raw: RawClass
         ): List<ResolvedConstructor> {
-            return raw.declaredConstructors()
-                .filter { !it.isSynthetic }
-                .map {
-                    val parameters = resolveParameters(reflectMaid, it, fullType)
-                    ResolvedConstructor(parameters, fullType, it, reflectMaid)
+            return raw.constructorTemplates()
+                .map { template ->
+                    val parameters = Cached { resolveParameters(reflectMaid, template.parameters, fullType) }
+                    ResolvedConstructor(parameters, fullType, template.constructor, reflectMaid)
                 }
         }
     }
@@ -20,9 +20,19 @@
  */
 package de.quantummaid.reflectmaid.resolvedtype.resolver
 
-import de.quantummaid.reflectmaid.GenericType.Companion.fromReflectionType
+import de.quantummaid.reflectmaid.BooleanGetter
+import de.quantummaid.reflectmaid.BooleanSetter
+import de.quantummaid.reflectmaid.DoubleGetter
+import de.quantummaid.reflectmaid.DoubleSetter
+import de.quantummaid.reflectmaid.ExecutorFactory
+import de.quantummaid.reflectmaid.IntGetter
+import de.quantummaid.reflectmaid.IntSetter
+import de.quantummaid.reflectmaid.LongGetter
+import de.quantummaid.reflectmaid.LongSetter
 import de.quantummaid.reflectmaid.RawClass
 import de.quantummaid.reflectmaid.ReflectMaid
+import de.quantummaid.reflectmaid.createGetterFunction
+import de.quantummaid.reflectmaid.createSetterBiConsumer
 import de.quantummaid.reflectmaid.languages.Language
 import de.quantummaid.reflectmaid.resolvedtype.Cached
 import de.quantummaid.reflectmaid.resolvedtype.ClassType
@@ -31,14 +41,26 @@ import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
 import java.lang.reflect.Field
 import java.lang.reflect.Modifier
 import java.util.*
+import java.util.function.BiConsumer
+import java.util.function.Function
 
-data class ResolvedField(
+class ResolvedField internal constructor(
     val name: String,
-    val type: ResolvedType,
+    private val resolvedType: Cached<ResolvedType>,
     val declaringType: ResolvedType,
     val field: Field,
     val reflectMaid: ReflectMaid
 ) {
+    constructor(
+        name: String,
+        type: ResolvedType,
+        declaringType: ResolvedType,
+        field: Field,
+        reflectMaid: ReflectMaid
+    ) : this(name, Cached { type }, declaringType, field, reflectMaid)
+
+    val type: ResolvedType
+        get() = resolvedType.get()
     private val isPublic = Cached {
         val modifiers = this.field.modifiers
         Modifier.isPublic(modifiers)
@@ -83,6 +105,16 @@ data class ResolvedField(
     }
     private val getter = Cached { reflectMaid.executorFactory.createFieldGetter(this) }
     private val setter = Cached { reflectMaid.executorFactory.createFieldSetter(this) }
+    private val intGetter = Cached { primitiveAccessor(Integer.TYPE) { it.createIntFieldGetter(this) } }
+    private val longGetter = Cached { primitiveAccessor(java.lang.Long.TYPE) { it.createLongFieldGetter(this) } }
+    private val doubleGetter = Cached { primitiveAccessor(java.lang.Double.TYPE) { it.createDoubleFieldGetter(this) } }
+    private val booleanGetter = Cached { primitiveAccessor(java.lang.Boolean.TYPE) { it.createBooleanFieldGetter(this) } }
+    private val intSetter = Cached { primitiveAccessor(Integer.TYPE) { it.createIntFieldSetter(this) } }
+    private val longSetter = Cached { primitiveAccessor(java.lang.Long.TYPE) { it.createLongFieldSetter(this) } }
+    private val doubleSetter = Cached { primitiveAccessor(java.lang.Double.TYPE) { it.createDoubleFieldSetter(this) } }
+    private val booleanSetter = Cached { primitiveAccessor(java.lang.Boolean.TYPE) { it.createBooleanFieldSetter(this) } }
+    private val getterFunction = Cached { createGetterFunction(field) }
+    private val setterBiConsumer = Cached { createSetterBiConsumer(field) }
     private val getAccessor = NullableCached {
         if (declaringType.language() != Language.KOTLIN) {
             null
@@ -118,9 +150,47 @@ data class ResolvedField(
     fun describe() = description.get()
     fun createGetter() = getter.get()
     fun createSetter() = setter.get()
+    fun createIntGetter(): IntGetter = intGetter.get()
+    fun createLongGetter(): LongGetter = longGetter.get()
+    fun createDoubleGetter(): DoubleGetter = doubleGetter.get()
+    fun createBooleanGetter(): BooleanGetter = booleanGetter.get()
+    fun createIntSetter(): IntSetter = intSetter.get()
+    fun createLongSetter(): LongSetter = longSetter.get()
+    fun createDoubleSetter(): DoubleSetter = doubleSetter.get()
+    fun createBooleanSetter(): BooleanSetter = booleanSetter.get()
+    fun createGetterFunction(): Function<Any?, Any?> = getterFunction.get()
+    fun createSetterBiConsumer(): BiConsumer<Any?, Any?> = setterBiConsumer.get()
     fun kotlinGetAccessor() = getAccessor.get()
     fun kotlinSetAccessor() = setAccessor.get()
 
+    private fun <T> primitiveAccessor(primitiveType: Class<*>, factory: (ExecutorFactory) -> T): T {
+        if (field.type != primitiveType) {
+            throw IncompatibleFieldTypeException(
+                "field '${field.toGenericString()}' cannot be accessed as '$primitiveType'"
+            )
+        }
+        return factory.invoke(reflectMaid.executorFactory)
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (other === this) {
+            return true
+        }
+        if (other !is ResolvedField) {
+            return false
+        }
+        return other.field == field && other.declaringType == declaringType
+    }
+
+    override fun hashCode(): Int {
+        return 31 * field.hashCode() + declaringType.hashCode()
+    }
+
+    override fun toString(): String {
+        return "ResolvedField(name=$name, type=$type, declaringType=$declaringType, " +
+                "field=$field, reflectMaid=$reflectMaid)"
+    }
+
     /*
     https://kotlinlang.org/docs/java-to-kotlin-interop.html#properties
      */
@@ -149,12 +219,13 @@ data class ResolvedField(
             fullType: ClassType,
             raw: RawClass
         ): List<ResolvedField> {
-            return raw.declaredFields()
-                .filter { !it.isSynthetic }
-                .map {
-                    val resolved = reflectMaid.resolve(fromReflectionType<Any>(it.genericType, fullType))
-                    ResolvedField(it.name, resolved, fullType, it, reflectMaid)
+            return raw.fieldTemplates()
+                .map { template ->
+                    val resolved = Cached { template.type.resolve(reflectMaid, fullType) }
+                    ResolvedField(template.field.name, resolved, fullType, template.field, reflectMaid)
                 }
         }
     }
-}
\ No newline at end of file
+}
+
+class IncompatibleFieldTypeException(message: String) : RuntimeException(message)
\ No newline at end of file
@@ -21,29 +21,51 @@
 package de.quantummaid.reflectmaid.resolvedtype.resolver
 
 import de.quantummaid.reflectmaid.Executor
-import de.quantummaid.reflectmaid.GenericType.Companion.fromReflectionType
 import de.quantummaid.reflectmaid.RawClass
 import de.quantummaid.reflectmaid.ReflectMaid
+import de.quantummaid.reflectmaid.createBiConsumer
+import de.quantummaid.reflectmaid.createFunction
+import de.quantummaid.reflectmaid.createSupplier
 import de.quantummaid.reflectmaid.languages.Language
 import de.quantummaid.reflectmaid.languages.ParameterData
 import de.quantummaid.reflectmaid.resolvedtype.Cached
 import de.quantummaid.reflectmaid.resolvedtype.ClassType
+import de.quantummaid.reflectmaid.resolvedtype.NullableCached
 import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
-import de.quantummaid.reflectmaid.resolvedtype.UnresolvableTypeVariableException
 import java.lang.reflect.Method
 import java.lang.reflect.Modifier
 import java.util.*
+import java.util.function.BiConsumer
+import java.util.function.Function
+import java.util.function.Supplier
 
-data class ResolvedMethod(
+class ResolvedMethod internal constructor(
     val name: String,
-    val returnType: ResolvedType?,
-    val parameters: List<ResolvedParameter>,
+    private val resolvedReturnType: NullableCached<ResolvedType>,
+    private val resolvedParameters: Cached<List<ResolvedParameter>>,
     val declaringType: ResolvedType,
     val method: Method,
     val language: Language,
     val reflectMaid: ReflectMaid
 ) {
+    constructor(
+        name: String,
+        returnType: ResolvedType?,
+        parameters: List<ResolvedParameter>,
+        declaringType: ResolvedType,
+        method: Method,
+        language: Language,
+        reflectMaid: ReflectMaid
+    ) : this(name, NullableCached { returnType }, Cached { parameters }, declaringType, method, language, reflectMaid)
+
+    val returnType: ResolvedType?
+        get() = resolvedReturnType.get()
+    val parameters: List<ResolvedParameter>
+        get() = resolvedParameters.get()
     private val executor: Cached<Executor> = Cached { reflectMaid.executorFactory.createMethodExecutor(this) }
+    private val function = Cached { createFunction(method) }
+    private val biConsumer = Cached { createBiConsumer(method) }
+    private val supplier = Cached { createSupplier(method) }
 
     fun returnType(): Optional<ResolvedType> {
         return Optional.ofNullable(returnType)
@@ -86,6 +108,28 @@ data class ResolvedMethod(
     }
 
     fun createExecutor() = executor.get()
+    fun createFunction(): Function<Any?, Any?> = function.get()
+    fun createBiConsumer(): BiConsumer<Any?, Any?> = biConsumer.get()
+    fun createSupplier(): Supplier<Any?> = supplier.get()
+
+    override fun equals(other: Any?): Boolean {
+        if (other === this) {
+            return true
+        }
+        if (other !is ResolvedMethod) {
+            return false
+        }
+        return other.method == method && other.declaringType == declaringType
+    }
+
+    override fun hashCode(): Int {
+        return 31 * method.hashCode() + declaringType.hashCode()
+    }
+
+    override fun toString(): String {
+        return "ResolvedMethod(name=$name, returnType=$returnType, parameters=$parameters, " +
+                "declaringType=$declaringType, method=$method, language=$language, reflectMaid=$reflectMaid)"
+    }
 
     companion object {
         fun resolveMethodsWithResolvableTypeVariables(
@@ -94,32 +138,21 @@ data class ResolvedMethod(
             raw: RawClass,
             language: Language
         ): List<ResolvedMethod> {
-            return raw.declaredMethods()
-                .filter { !it.isSynthetic }
-                .mapNotNull {
-                    try {
-                        resolveMethod(reflectMaid, it, fullType, language)
-                    } catch (e: UnresolvableTypeVariableException) {
-                        null
-                    }
-                }
+            return raw.methodTemplates()
+                .filter { template -> template.typeVariables.all { fullType.canResolveTypeVariable(it) } }
+                .map { resolveMethod(reflectMaid, it, fullType, language) }
         }
 
         private fun resolveMethod(
             reflectMaid: ReflectMaid,
-            method: Method,
+            template: MethodTemplate,
             context: ClassType,
             language: Language
         ): ResolvedMethod {
-            val name = method.name
-            val genericReturnType = method.genericReturnType
-            val parameters = ResolvedParameter.resolveParameters(reflectMaid, method, context)
-            val returnType: ResolvedType? = if (genericReturnType !== Void.TYPE) {
-                reflectMaid.resolve(fromReflectionType<Any>(genericReturnType, context))
-            } else {
-                null
-            }
-            return ResolvedMethod(name, returnType, parameters, context, method, language, reflectMaid)
+            val method = template.method
+            val parameters = Cached { ResolvedParameter.resolveParameters(reflectMaid, template.parameters, context) }
+            val returnType = NullableCached { template.returnType?.resolve(reflectMaid, context) }
+            return ResolvedMethod(method.name, returnType, parameters, context, method, language, reflectMaid)
         }
     }
 }
\ No newline at end of file
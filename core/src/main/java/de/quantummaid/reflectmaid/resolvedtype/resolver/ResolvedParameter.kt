@@ -44,5 +44,14 @@ data class ResolvedParameter(val type: ResolvedType,
                 ResolvedParameter(resolvedType, it)
             }
         }
+
+        internal fun resolveParameters(reflectMaid: ReflectMaid,
+                                       templates: List<ParameterTemplate>,
+                                       fullType: ClassType): List<ResolvedParameter> {
+            return templates.map {
+                val resolvedType = it.type.resolve(reflectMaid, fullType)
+                ResolvedParameter(resolvedType, it.parameter)
+            }
+        }
     }
 }
\ No newline at end of file
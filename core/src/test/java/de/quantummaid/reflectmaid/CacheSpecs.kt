@@ -20,12 +20,21 @@
  */
 package de.quantummaid.reflectmaid
 
+import de.quantummaid.reflectmaid.GenericType.Companion.fromReflectionType
 import de.quantummaid.reflectmaid.GenericType.Companion.fromResolvedType
 import de.quantummaid.reflectmaid.GenericType.Companion.genericType
 import de.quantummaid.reflectmaid.GenericType.Companion.wildcard
+import de.quantummaid.reflectmaid.ReflectMaid.Companion.aThreadSafeReflectMaid
+import de.quantummaid.reflectmaid.RawClassCache.Companion.rawTypeCache
+import de.quantummaid.reflectmaid.ReflectionCache.Companion.concurrentReflectionCache
+import de.quantummaid.reflectmaid.ReflectionCache.Companion.reflectionCache
+import de.quantummaid.reflectmaid.resolvedtype.Cached
 import de.quantummaid.reflectmaid.resolvedtype.ClassType
 import de.quantummaid.reflectmaid.resolvedtype.ComparingTypesOfDifferentReflectMaidsException
+import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
 import de.quantummaid.reflectmaid.types.TestType
+import de.quantummaid.reflectmaid.types.TestTypeWithClosedFieldType
+import de.quantummaid.reflectmaid.types.TestTypeWithTypeVariables
 import de.quantummaid.reflectmaid.types.TypeWithFields
 import de.quantummaid.reflectmaid.util.withException
 import org.hamcrest.MatcherAssert.assertThat
@@ -33,6 +42,10 @@ import org.hamcrest.Matchers.*
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
 
 class CacheSpecs {
 
@@ -91,11 +104,48 @@ class CacheSpecs {
         assertThat(reflectMaid.registeredTypes(), hasSize(1))
 
         resolvedType as ClassType
-        resolvedType.fields()
+        val fields = resolvedType.fields()
+
+        assertThat(reflectMaid.registeredTypes(), hasSize(1))
+
+        fields.forEach { it.type }
 
         assertThat(reflectMaid.registeredTypes(), hasSize(2))
     }
 
+    @Test
+    fun classTypeTokenAndClosedReflectionTypeShareOneCacheEntry() {
+        val resolvedKeys = ArrayList<GenericType<*>>()
+        val delegate = reflectionCache()
+        val recordingCache = object : ReflectionCache {
+            override fun lookUp(genericType: GenericType<*>, default: (GenericType<*>) -> ResolvedType): ResolvedType {
+                return delegate.lookUp(genericType) {
+                    val resolvedType = default(it)
+                    if (resolvedType.assignableType() == String::class.java && it !is GenericTypeFromToken) {
+                        resolvedKeys.add(it)
+                    }
+                    resolvedType
+                }
+            }
+
+            override fun registeredResolvedTypes() = delegate.registeredResolvedTypes()
+        }
+        val reflectMaid = ReflectMaid(recordingCache, rawTypeCache(), ReflectionExecutorFactory())
+        val context = reflectMaid.resolve(TestType::class) as ClassType
+        val closedFieldType = TestTypeWithClosedFieldType::class.java.getField("closedField").genericType
+
+        val fromKClass = reflectMaid.resolve(String::class)
+        val fromTypeToken = reflectMaid.resolve<String>()
+        val fromReflectionType = reflectMaid.resolve(fromReflectionType<String>(String::class.java, context))
+        val fromClosedReflectionType = reflectMaid.resolve(GenericTypeFromClosedReflectionType<String>(String::class.java))
+        reflectMaid.resolve(GenericTypeFromClosedReflectionType<Any>(closedFieldType))
+
+        assertTrue(fromKClass === fromTypeToken)
+        assertTrue(fromKClass === fromReflectionType)
+        assertTrue(fromKClass === fromClosedReflectionType)
+        assertThat(resolvedKeys, hasSize(1))
+    }
+
     @Test
     fun twoWildcardGenericTypesAreEqual() {
         val wildcard1 = wildcard()
@@ -195,6 +245,162 @@ class CacheSpecs {
                 "java.lang.String and java.lang.String"))
     }
 
+    @Test
+    fun equalResolvedTypesAreRegisteredOnlyOnce() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType1 = reflectMaid.resolve(genericType<List<String>>(List::class.java, String::class.java))
+        val resolvedType2 = reflectMaid.resolve(genericType<List<String>>(List::class, String::class))
+        val resolvedType3 = reflectMaid.resolve<List<String>>()
+
+        assertTrue(resolvedType1 === resolvedType2)
+        assertTrue(resolvedType1 === resolvedType3)
+        val registeredListTypes = reflectMaid.registeredTypes().filter { it.assignableType() == List::class.java }
+        assertThat(registeredListTypes, hasSize(1))
+    }
+
+    @Test
+    fun differentParameterizationsOfSameClassHaveDifferentHashCodes() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val stringList = reflectMaid.resolve<List<String>>()
+        val intList = reflectMaid.resolve<List<Int>>()
+        val stringListList = reflectMaid.resolve<List<List<String>>>()
+        val intListList = reflectMaid.resolve<List<List<Int>>>()
+
+        assertThat(stringList.hashCode() == intList.hashCode(), `is`(false))
+        assertThat(stringListList.hashCode() == intListList.hashCode(), `is`(false))
+        assertThat(stringList == intList, `is`(false))
+    }
+
+    @Test
+    fun concurrentCacheResolvesTypeOnlyOnceWhenRequestedConcurrently() {
+        val resolvedType = ReflectMaid.aReflectMaid().resolve<String>()
+        val cache = concurrentReflectionCache()
+        val resolutions = AtomicInteger()
+        val start = CountDownLatch(1)
+        val threadPool = Executors.newFixedThreadPool(8)
+        val futures = (0 until 8).map {
+            threadPool.submit(Callable {
+                start.await()
+                cache.lookUp(genericType(String::class.java)) {
+                    resolutions.incrementAndGet()
+                    Thread.sleep(100)
+                    resolvedType
+                }
+            })
+        }
+        start.countDown()
+        val results = futures.map { it.get() }
+        threadPool.shutdown()
+
+        assertThat(resolutions.get(), `is`(1))
+        assertTrue(results.all { it === resolvedType })
+    }
+
+    @Test
+    fun cachedValueIsComputedOnlyOnceWhenRequestedConcurrently() {
+        val computations = AtomicInteger()
+        val cached = Cached {
+            computations.incrementAndGet()
+            Thread.sleep(100)
+            Any()
+        }
+        val start = CountDownLatch(1)
+        val threadPool = Executors.newFixedThreadPool(8)
+        val futures = (0 until 8).map {
+            threadPool.submit(Callable {
+                start.await()
+                cached.get()
+            })
+        }
+        start.countDown()
+        val results = futures.map { it.get() }
+        threadPool.shutdown()
+
+        assertThat(computations.get(), `is`(1))
+        assertTrue(results.all { it === results[0] })
+    }
+
+    @Test
+    fun threadSafeReflectMaidReturnsSameResolvedTypeReferenceToAllThreads() {
+        val reflectMaid = aThreadSafeReflectMaid()
+        val threadPool = Executors.newFixedThreadPool(8)
+        val futures = (0 until 8).map {
+            threadPool.submit(Callable {
+                reflectMaid.resolve(genericType<List<String>>(List::class.java, String::class.java))
+            })
+        }
+        val results = futures.map { it.get() }
+        threadPool.shutdown()
+
+        assertTrue(results.all { it === results[0] })
+        assertThat(reflectMaid.registeredTypes(), hasSize(1))
+    }
+
+    @Test
+    fun lazilyResolvedMembersArePublishedOnceToAllThreads() {
+        val reflectMaid = aThreadSafeReflectMaid()
+        val classType = reflectMaid.resolve<TypeWithFields>()
+        val start = CountDownLatch(1)
+        val threadPool = Executors.newFixedThreadPool(8)
+        val futures = (0 until 8).map {
+            threadPool.submit(Callable {
+                start.await()
+                listOf(classType.fields(), classType.methods(), classType.description())
+            })
+        }
+        start.countDown()
+        val results = futures.map { it.get() }
+        threadPool.shutdown()
+
+        results.forEach { result ->
+            result.indices.forEach { assertTrue(result[it] === results[0][it]) }
+        }
+    }
+
+    @Test
+    fun closedFieldTypesAreSharedBetweenParameterizationsOfDeclaringType() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val stringType = reflectMaid.resolve<TestTypeWithClosedFieldType<String>>()
+        val intType = reflectMaid.resolve<TestTypeWithClosedFieldType<Int>>()
+
+        val closedFieldType1 = stringType.fields().first { it.name == "closedField" }.type
+        val closedFieldType2 = intType.fields().first { it.name == "closedField" }.type
+
+        assertTrue(closedFieldType1 === closedFieldType2)
+        assertThat(closedFieldType1.description(), `is`("java.util.Map<java.lang.String, java.util.List<java.lang.Long>>"))
+        val registeredMapTypes = reflectMaid.registeredTypes().filter { it.assignableType() == Map::class.java }
+        assertThat(registeredMapTypes, hasSize(1))
+    }
+
+    @Test
+    fun memberSignaturesAreSubstitutedPerParameterization() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val stringType = reflectMaid.resolve<TestTypeWithTypeVariables<String>>()
+        val intType = reflectMaid.resolve<TestTypeWithTypeVariables<Int>>()
+
+        val stringGetter = stringType.methods().first { it.name == "getFieldA" }
+        val intGetter = intType.methods().first { it.name == "getFieldA" }
+        val stringConstructor = stringType.constructors()[0]
+        val intConstructor = intType.constructors()[0]
+
+        val rawClass = reflectMaid.rawClassCache.rawClassFor(TestTypeWithTypeVariables::class.java)
+        val methodTemplates = rawClass.methodTemplates()
+        val getterTemplate = methodTemplates.single { it.method.name == "getFieldA" }
+        assertTrue(getterTemplate.method === stringGetter.method)
+        assertTrue(getterTemplate.method === intGetter.method)
+        assertThat(getterTemplate.returnType!!.typeVariables, contains(TypeVariableName("A")))
+
+        reflectMaid.resolve<TestTypeWithTypeVariables<Long>>().methods()
+        assertTrue(reflectMaid.rawClassCache.rawClassFor(TestTypeWithTypeVariables::class.java) === rawClass)
+        assertTrue(rawClass.methodTemplates() === methodTemplates)
+        assertThat(stringGetter.returnType!!.description(), `is`("java.lang.String"))
+        assertThat(intGetter.returnType!!.description(), `is`("java.lang.Integer"))
+        assertThat(stringConstructor.parameters[0].type.description(), `is`("java.lang.String"))
+        assertThat(intConstructor.parameters[0].type.description(), `is`("java.lang.Integer"))
+        assertThat(stringType.fields()[0].type.description(), `is`("java.lang.String"))
+        assertThat(intType.fields()[0].type.description(), `is`("java.lang.Integer"))
+    }
+
     private fun assertSameReferenceGetsReturned(genericTypeFactory: () -> GenericType<*>) {
         val reflectMaid = ReflectMaid.aReflectMaid()
 
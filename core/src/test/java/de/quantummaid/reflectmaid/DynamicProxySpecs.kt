@@ -21,10 +21,13 @@
 package de.quantummaid.reflectmaid
 
 import de.quantummaid.reflectmaid.ReflectMaid.Companion.aReflectMaid
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
+import de.quantummaid.reflectmaid.types.JavaDecoratorInterceptor
 import de.quantummaid.reflectmaid.util.withException
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.MatcherAssert.assertThat
 import org.junit.jupiter.api.Test
+import java.lang.reflect.Proxy
 
 interface MyInterface {
     fun call(parameter: String): String
@@ -40,6 +43,18 @@ interface MyMultiMethodInterface {
     fun method1(): String
 }
 
+interface MySupplier<T> {
+    fun get(): T
+}
+
+interface MyStringSupplier : MySupplier<String> {
+    override fun get(): String
+}
+
+private interface MyPrivateInterface {
+    fun call(parameter: String): String
+}
+
 class DynamicProxySpecs {
 
     @Test
@@ -132,4 +147,176 @@ class DynamicProxySpecs {
         }
         assertThat(proxy.hashCode(), `is`(1337))
     }
+
+    @Test
+    fun indexedDynamicProxyDispatchesByMethodIndex() {
+        val reflectMaid = aReflectMaid()
+        val proxyFactory = reflectMaid.createIndexedDynamicProxyFactory<MyInterface>()
+        val methods = proxyFactory.methods()
+        val proxy = proxyFactory.createIndexedProxy { methodIndex, args ->
+            methods[methodIndex].name + ": " + args.joinToString()
+        }
+        assertThat(proxy.call("foo"), `is`("call: foo"))
+        assertThat(proxy.toString(), `is`("toString: "))
+    }
+
+    @Test
+    fun boundDynamicProxyCallsHandlerOfEachMethod() {
+        val reflectMaid = aReflectMaid()
+        val proxyFactory = reflectMaid.createIndexedDynamicProxyFactory<MyMultiMethodInterface>()
+        val methods = proxyFactory.methods().associateBy { it.name }
+        val proxy = proxyFactory.createBoundProxy(
+            mapOf(
+                methods["method0"]!! to MethodProxyHandler { "foo" },
+                methods["method1"]!! to MethodProxyHandler { "bar" }
+            )
+        )
+        assertThat(proxy.method0(), `is`("foo"))
+        assertThat(proxy.method1(), `is`("bar"))
+
+        val exception = withException<DynamicProxyException> { proxy.hashCode() }
+        assertThat(
+            exception.message,
+            `is`("no handler has been bound to method 'int hashCode()' [public native int java.lang.Object.hashCode()]")
+        )
+    }
+
+    @Test
+    fun decoratorForwardsToTargetAndCallsInterceptor() {
+        val reflectMaid = aReflectMaid()
+        val decoratorFactory = reflectMaid.createDecoratorFactory<MyInterface>()
+        val target = object : MyInterface {
+            override fun call(parameter: String) = "target: $parameter"
+        }
+        val calls = ArrayList<String>()
+        val decorator = decoratorFactory.createDecorator(target, object : DecoratorInterceptor {
+            override fun before(method: ResolvedMethod, args: Array<Any?>) {
+                calls.add("before ${method.name}(${args.joinToString()})")
+            }
+
+            override fun after(method: ResolvedMethod, args: Array<Any?>, returnValue: Any?) {
+                calls.add("after ${method.name} -> $returnValue")
+            }
+        })
+
+        assertThat(decorator.call("foo"), `is`("target: foo"))
+        assertThat(calls, `is`(listOf("before call(foo)", "after call -> target: foo")))
+        assertThat(decoratorFactory.createDecorator(target).call("bar"), `is`("target: bar"))
+    }
+
+    @Test
+    fun decoratorInterceptsCallsThroughGenericSuperInterface() {
+        val reflectMaid = aReflectMaid()
+        val decoratorFactory = reflectMaid.createDecoratorFactory<MyStringSupplier>()
+        val target = object : MyStringSupplier {
+            override fun get() = "target"
+        }
+        val calls = ArrayList<String>()
+        val decorator: MySupplier<String> = decoratorFactory.createDecorator(target, object : DecoratorInterceptor {
+            override fun before(method: ResolvedMethod, args: Array<Any?>) {
+                calls.add("before ${method.declaringType.description()}.${method.name}")
+            }
+        })
+
+        assertThat(decorator.get(), `is`("target"))
+        assertThat(calls, `is`(listOf("before ${MyStringSupplier::class.java.name}.get")))
+        assertThat(decoratorFactory.methods().size, `is`(1))
+    }
+
+    @Test
+    fun decoratorInterceptorImplementedInJavaCanOmitCallbacks() {
+        val reflectMaid = aReflectMaid()
+        val decoratorFactory = reflectMaid.createDecoratorFactory<MyInterface>()
+        val target = object : MyInterface {
+            override fun call(parameter: String) = "target: $parameter"
+        }
+        val interceptor = JavaDecoratorInterceptor()
+        val decorator = decoratorFactory.createDecorator(target, interceptor)
+
+        assertThat(decorator.call("foo"), `is`("target: foo"))
+        assertThat(interceptor.calls(), `is`(listOf("call")))
+    }
+
+    @Test
+    fun lambdaProxyCallsHandlerOfSingleAbstractMethod() {
+        val reflectMaid = aReflectMaid()
+        val proxyFactory = reflectMaid.createLambdaProxyFactory<MyTypedInterface<Int>>()
+        val proxy = proxyFactory.createProxy { method, parameters ->
+            assertThat(method.name, `is`("call"))
+            parameters[0] as Int + parameters[1] as Int
+        }
+
+        assertThat(proxy.call(1, 2), `is`(3))
+        assertThat(Proxy.isProxyClass(proxy.javaClass), `is`(false))
+    }
+
+    @Test
+    fun lambdaProxyFactoryFallsBackToDynamicProxyForMultipleMethods() {
+        val reflectMaid = aReflectMaid()
+        val proxyFactory = reflectMaid.createLambdaProxyFactory<MyMultiMethodInterface>()
+        val proxy = proxyFactory.createProxy { method, _ -> method.name }
+
+        assertThat(proxy.method0(), `is`("method0"))
+        assertThat(proxy.method1(), `is`("method1"))
+    }
+
+    @Test
+    fun decoratorForwardsObjectMethodsToTarget() {
+        val reflectMaid = aReflectMaid()
+        val decoratorFactory = reflectMaid.createDecoratorFactory<MyInterface>()
+        val target = object : MyInterface {
+            override fun call(parameter: String) = "target: $parameter"
+
+            override fun equals(other: Any?) = other == "equal"
+
+            override fun hashCode() = 1337
+
+            override fun toString() = "target"
+        }
+        val calls = ArrayList<String>()
+        val decorator = decoratorFactory.createDecorator(target, object : DecoratorInterceptor {
+            override fun before(method: ResolvedMethod, args: Array<Any?>) {
+                calls.add(method.name)
+            }
+        })
+
+        assertThat(decorator.toString(), `is`("target"))
+        assertThat(decorator.hashCode(), `is`(1337))
+        assertThat(decorator.equals("equal"), `is`(true))
+        assertThat(calls.isEmpty(), `is`(true))
+    }
+
+    @Test
+    fun lambdaProxyClassIsCreatedOncePerInterface() {
+        val reflectMaid = aReflectMaid()
+        val proxy0 = reflectMaid.createLambdaProxyFactory<MyInterface>()
+            .createProxy { _, parameters -> "0: " + parameters[0] }
+        val proxy1 = reflectMaid.createLambdaProxyFactory<MyInterface>()
+            .createProxy { _, parameters -> "1: " + parameters[0] }
+
+        assertThat(proxy0.call("a"), `is`("0: a"))
+        assertThat(proxy1.call("b"), `is`("1: b"))
+        assertThat(proxy0.javaClass == proxy1.javaClass, `is`(true))
+    }
+
+    @Test
+    fun lambdaProxyCanBeCalledThroughGenericSuperInterface() {
+        val reflectMaid = aReflectMaid()
+        val proxy = reflectMaid.createLambdaProxyFactory<MyStringSupplier>().createProxy { method, _ -> method.name }
+        val superInterface: MySupplier<String> = proxy
+
+        assertThat(proxy.get(), `is`("get"))
+        assertThat(superInterface.get(), `is`("get"))
+        assertThat(Proxy.isProxyClass(proxy.javaClass), `is`(false))
+    }
+
+    @Test
+    fun lambdaProxyFactoryFallsBackToDynamicProxyForInaccessibleInterface() {
+        val reflectMaid = aReflectMaid()
+        val proxy = reflectMaid.createLambdaProxyFactory<MyPrivateInterface>()
+            .createProxy { _, parameters -> "proxied: " + parameters[0] }
+
+        assertThat(proxy.call("foo"), `is`("proxied: foo"))
+        assertThat(Proxy.isProxyClass(proxy.javaClass), `is`(true))
+    }
 }
\ No newline at end of file
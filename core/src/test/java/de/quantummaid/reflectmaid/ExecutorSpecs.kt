@@ -20,6 +20,9 @@
  */
 package de.quantummaid.reflectmaid
 
+import de.quantummaid.reflectmaid.queries.QueryPath.Companion.method
+import de.quantummaid.reflectmaid.resolvedtype.resolver.IncompatibleFieldTypeException
+import de.quantummaid.reflectmaid.types.JavaExecutorFactory
 import de.quantummaid.reflectmaid.types.TestTypeWithConstructorThatThrows
 import de.quantummaid.reflectmaid.types.TestTypeWithMethodThatThrows
 import de.quantummaid.reflectmaid.types.TypeWithPublicFields
@@ -142,4 +145,229 @@ class ExecutorSpecs {
         assertThat(exception.message, `is`("foo"))
         assertThat(exception.stackTrace[0].className, `is`("de.quantummaid.reflectmaid.types.TestTypeWithMethodThatThrows"))
     }
+
+    @Test
+    fun methodCanBeExecutedByMethodHandle() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<String>()
+        val method = resolvedType.methods()
+                .filter { it.name == "strip" }
+                .first { it.parameters.isEmpty() }
+        val executor = method.createExecutor()
+        val result = executor.execute("    abc    ", listOf())
+        assertThat(result, `is`("abc"))
+    }
+
+    @Test
+    fun staticMethodCanBeExecutedByMethodHandle() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val method = resolvedType.methods().first { it.name == "concat" }
+        val executor = method.createExecutor()
+        val result = executor.execute(null, listOf("a", "b"))
+        assertThat(result, `is`("ab"))
+    }
+
+    @Test
+    fun voidMethodExecutedByMethodHandleReturnsNull() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<ArrayList<String>>()
+        val method = resolvedType.methods().first { it.name == "clear" }
+        val executor = method.createExecutor()
+        val list = arrayListOf("a")
+        val result = executor.execute(list, listOf())
+        assertThat(result == null, `is`(true))
+        assertThat(list.isEmpty(), `is`(true))
+    }
+
+    @Test
+    fun constructorCanBeExecutedByMethodHandle() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<ArrayList<String>>()
+        val constructor = resolvedType.constructors()
+                .filter { it.parameters.size == 1 }
+                .first { it.parameters[0].type.assignableType() == Int::class.java }
+        val executor = constructor.createExecutor()
+        val result = executor.execute(null, listOf(10))
+        assertThat(result, instanceOf(ArrayList::class.java))
+    }
+
+    @Test
+    fun fieldsCanBeAccessedByMethodHandle() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val field = resolvedType.fields().first { it.name == "field" }
+        val staticField = resolvedType.fields().first { it.name == "staticField" }
+        val publicField = TypeWithPublicFields()
+
+        field.createSetter().set(publicField, "foo")
+        staticField.createSetter().set(null, "bar")
+
+        assertThat(field.createGetter().get(publicField), `is`("foo"))
+        assertThat(staticField.createGetter().get(null), `is`("bar"))
+    }
+
+    @Test
+    fun exceptionInMethodIsDirectlyThrownByMethodHandle() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TestTypeWithMethodThatThrows>()
+        val method = resolvedType.methods()[0]
+        val executor = method.createExecutor()
+        val instance = TestTypeWithMethodThatThrows()
+        val exception = withException<UnsupportedOperationException> { executor.execute(instance, listOf()) }
+        assertThat(exception.message, `is`("foo"))
+    }
+
+    @Test
+    fun methodCanBeCalledAsLambdaFunction() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType = reflectMaid.resolve<String>()
+        val method = resolvedType.methods()
+                .filter { it.name == "length" }
+                .first { it.parameters.isEmpty() }
+        val function = method.createFunction()
+        assertThat(function.apply("abc"), `is`(3))
+    }
+
+    @Test
+    fun methodCanBeCalledAsLambdaBiConsumer() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType = reflectMaid.resolve<ArrayList<String>>()
+        val method = resolvedType.methods()
+                .filter { it.name == "add" }
+                .first { it.parameters.size == 1 }
+        val biConsumer = method.createBiConsumer()
+        val list = ArrayList<String>()
+        biConsumer.accept(list, "foo")
+        assertThat(list, contains("foo"))
+    }
+
+    @Test
+    fun constructorCanBeCalledAsLambdaSupplier() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val constructor = resolvedType.constructors()[0]
+        val supplier = constructor.createSupplier()
+        assertThat(supplier.get(), instanceOf(TypeWithPublicFields::class.java))
+    }
+
+    @Test
+    fun fieldCanBeAccessedAsLambdas() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val field = resolvedType.fields().first { it.name == "field" }
+        val instance = TypeWithPublicFields()
+        field.createSetterBiConsumer().accept(instance, "foo")
+        assertThat(field.createGetterFunction().apply(instance), `is`("foo"))
+    }
+
+    @Test
+    fun methodWithWrongArityCannotBeCalledAsLambda() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val method = resolvedType.methods().first { it.name == "concat" }
+        val exception = withException<LambdaCreationException> { method.createFunction() }
+        assertThat(exception.message, `is`("method 'public static java.lang.String " +
+                "de.quantummaid.reflectmaid.types.TypeWithPublicFields.concat(java.lang.String,java.lang.String)' " +
+                "needs to take exactly one argument (including its instance) and return a value to be used as a Function"))
+    }
+
+    @Test
+    fun executorsCanBeCalledWithArrayAndFixedArity() {
+        listOf(ReflectionExecutorFactory(), MethodHandleExecutorFactory()).forEach {
+            val reflectMaid = ReflectMaid.aReflectMaid(it)
+            val resolvedType = reflectMaid.resolve<ArrayList<String>>()
+            val add = resolvedType.methods()
+                    .filter { method -> method.name == "add" }
+                    .first { method -> method.parameters.size == 1 }
+                    .createExecutor()
+            val size = resolvedType.methods()
+                    .first { method -> method.name == "size" }
+                    .createExecutor()
+            val list = ArrayList<String>()
+            add.execute(list, arrayOf<Any?>("a"))
+            add.execute1(list, "b")
+            assertThat(size.execute0(list), `is`(2))
+            assertThat(size.execute(list, arrayOf()), `is`(2))
+            assertThat(list, contains("a", "b"))
+        }
+    }
+
+    @Test
+    fun fixedArityCallsWithWrongNumberOfParametersFail() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val executor = resolvedType.methods().first { it.name == "concat" }.createExecutor()
+        withException<IllegalArgumentException> { executor.execute1(null, "a") }
+        assertThat(executor.execute(null, arrayOf<Any?>("a", "b")), `is`("ab"))
+        assertThat(executor.execute2(null, "a", "b"), `is`("ab"))
+    }
+
+    @Test
+    fun executorsImplementedInJavaOnlyNeedToImplementTheListVariant() {
+        val reflectMaid = ReflectMaid.aReflectMaid(JavaExecutorFactory())
+        val resolvedType = reflectMaid.resolve<ArrayList<String>>()
+        val add = resolvedType.methods()
+                .filter { method -> method.name == "add" }
+                .first { method -> method.parameters.size == 1 }
+                .createExecutor()
+        val list = ArrayList<String>()
+        add.execute(list, arrayOf<Any?>("a"))
+        add.execute1(list, "b")
+        assertThat(list, contains("a", "b"))
+
+        val size = resolvedType.query(method("size")).createGetter()
+        assertThat(size.get(list), `is`(2))
+
+        val fields = reflectMaid.resolve<TypeWithPublicFields>().fields().associateBy { it.name }
+        val instance = TypeWithPublicFields()
+        fields["intField"]!!.createIntSetter().setInt(instance, 1)
+        assertThat(fields["intField"]!!.createIntGetter().getInt(instance), `is`(1))
+    }
+
+    @Test
+    fun primitiveFieldsCanBeAccessedWithoutBoxingByReflection() {
+        val reflectMaid = ReflectMaid.aReflectMaid(ReflectionExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val fields = resolvedType.fields().associateBy { it.name }
+        val instance = TypeWithPublicFields()
+
+        fields["intField"]!!.createIntSetter().setInt(instance, 1)
+        fields["longField"]!!.createLongSetter().setLong(instance, 2L)
+        fields["doubleField"]!!.createDoubleSetter().setDouble(instance, 3.0)
+        fields["booleanField"]!!.createBooleanSetter().setBoolean(instance, true)
+
+        assertThat(fields["intField"]!!.createIntGetter().getInt(instance), `is`(1))
+        assertThat(fields["longField"]!!.createLongGetter().getLong(instance), `is`(2L))
+        assertThat(fields["doubleField"]!!.createDoubleGetter().getDouble(instance), `is`(3.0))
+        assertThat(fields["booleanField"]!!.createBooleanGetter().getBoolean(instance), `is`(true))
+    }
+
+    @Test
+    fun primitiveFieldsCanBeAccessedWithoutBoxingByMethodHandle() {
+        val reflectMaid = ReflectMaid.aReflectMaid(MethodHandleExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val fields = resolvedType.fields().associateBy { it.name }
+        val instance = TypeWithPublicFields()
+
+        fields["intField"]!!.createIntSetter().setInt(instance, 1)
+        fields["longField"]!!.createLongSetter().setLong(instance, 2L)
+        fields["doubleField"]!!.createDoubleSetter().setDouble(instance, 3.0)
+        fields["booleanField"]!!.createBooleanSetter().setBoolean(instance, true)
+
+        assertThat(fields["intField"]!!.createIntGetter().getInt(instance), `is`(1))
+        assertThat(fields["longField"]!!.createLongGetter().getLong(instance), `is`(2L))
+        assertThat(fields["doubleField"]!!.createDoubleGetter().getDouble(instance), `is`(3.0))
+        assertThat(fields["booleanField"]!!.createBooleanGetter().getBoolean(instance), `is`(true))
+    }
+
+    @Test
+    fun primitiveAccessorRequiresMatchingFieldType() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val field = resolvedType.fields().first { it.name == "intField" }
+        val exception = withException<IncompatibleFieldTypeException> { field.createLongGetter() }
+        assertThat(exception.message, `is`("field 'public int de.quantummaid.reflectmaid.types.TypeWithPublicFields.intField' " +
+                "cannot be accessed as 'long'"))
+    }
 }
\ No newline at end of file
@@ -38,6 +38,8 @@ import static de.quantummaid.reflectmaid.GenericType.genericType;
 import static de.quantummaid.reflectmaid.GenericType.wildcard;
 import static de.quantummaid.reflectmaid.ReflectMaid.aReflectMaid;
 import static de.quantummaid.reflectmaid.TypeVariableName.typeVariableName;
+import static de.quantummaid.reflectmaid.resolvedtype.resolver.MemberFilter.allMembers;
+import static de.quantummaid.reflectmaid.resolvedtype.resolver.MemberFilter.publicMembers;
 import static de.quantummaid.reflectmaid.util.ExceptionThrowingLambda.withException;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -247,13 +249,43 @@ public final class ReflectMaidSpecs {
         assertThat(classType.methods(), hasSize(0));
     }
 
+    @Test
+    public void membersCanBeFiltered() {
+        final ReflectMaid reflectMaid = aReflectMaid();
+        final ResolvedType resolvedType = reflectMaid.resolve(TypeWithFields.class);
+
+        final List<ResolvedField> publicFields = resolvedType.fields(publicMembers());
+        assertThat(publicFields, hasSize(1));
+        assertThat(publicFields.get(0).getName(), is("FIELD_1"));
+
+        final List<ResolvedField> instanceFields = resolvedType.fields(allMembers().onlyInstance());
+        assertThat(instanceFields, hasSize(1));
+        assertThat(instanceFields.get(0).getName(), is("field2"));
+
+        assertThat(resolvedType.fields(allMembers().named("field2", "field3")), hasSize(1));
+        assertThat(resolvedType.fields(publicMembers().onlyInstance()), hasSize(0));
+    }
+
+    @Test
+    public void filteredMembersAreCachedPerFilter() {
+        final ReflectMaid reflectMaid = aReflectMaid();
+        final ResolvedType resolvedType = reflectMaid.resolve(TestType.class);
+
+        final List<ResolvedMethod> methods1 = resolvedType.methods(publicMembers().named("method"));
+        final List<ResolvedMethod> methods2 = resolvedType.methods(publicMembers().named("method"));
+        assertThat(methods1, hasSize(1));
+        assertThat(methods1 == methods2, is(true));
+        assertThat(methods1.get(0) == resolvedType.methods().get(0), is(true));
+        assertThat(resolvedType.constructors(publicMembers()), hasSize(1));
+    }
+
     @Test
     public void syntheticFeaturesAreIgnored() {
         final ReflectMaid reflectMaid = ReflectMaid.aReflectMaid();
         final ClassType classType = (ClassType) reflectMaid.resolve(ReflectMaid.class);
-        assertThat(classType.fields(), hasSize(4));
+        assertThat(classType.fields(), hasSize(5));
         assertThat(classType.constructors(), hasSize(1));
-        assertThat(classType.methods(), hasSize(13));
+        assertThat(classType.methods(), hasSize(15));
     }
 
     @Test
@@ -20,8 +20,11 @@
  */
 package de.quantummaid.reflectmaid
 
+import de.quantummaid.reflectmaid.GenericType.Companion.genericType
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.MatcherAssert.assertThat
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
 
 class TypeTokenSpecs {
@@ -34,4 +37,23 @@ class TypeTokenSpecs {
         val resolved1 = reflectMaid.resolve<String>()
         assertThat(resolved1.simpleDescription(), `is`("String"))
     }
+
+    @Test
+    fun typeTokensOfSameTypeFromDifferentCallSitesAreEqual() {
+        val genericType1 = genericType<List<String>>()
+        val genericType2 = genericType<List<String>>()
+        assertEquals(genericType1, genericType2)
+        assertEquals(genericType1.hashCode(), genericType2.hashCode())
+    }
+
+    @Test
+    fun repeatedlyResolvingTypeTokenDoesNotRegisterNewTypes() {
+        val reflectMaid = ReflectMaid.aReflectMaid()
+        val resolvedType = reflectMaid.resolve<Map<String, Int>>()
+        val numberOfRegisteredTypes = reflectMaid.registeredTypes().size
+        repeat(100) {
+            assertTrue(reflectMaid.resolve<Map<String, Int>>() === resolvedType)
+        }
+        assertThat(reflectMaid.registeredTypes().size, `is`(numberOfRegisteredTypes))
+    }
 }
\ No newline at end of file
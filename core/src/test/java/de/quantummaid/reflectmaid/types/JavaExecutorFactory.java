@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.reflectmaid.types;
+
+import de.quantummaid.reflectmaid.*;
+import de.quantummaid.reflectmaid.resolvedtype.ResolvedType;
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedConstructor;
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedField;
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod;
+
+import java.util.List;
+
+public final class JavaExecutorFactory implements ExecutorFactory {
+    private final ReflectionExecutorFactory delegate = new ReflectionExecutorFactory();
+
+    @Override
+    public Executor createMethodExecutor(final ResolvedMethod method) {
+        return new JavaExecutor(delegate.createMethodExecutor(method));
+    }
+
+    @Override
+    public Executor createConstructorExecutor(final ResolvedConstructor constructor) {
+        return new JavaExecutor(delegate.createConstructorExecutor(constructor));
+    }
+
+    @Override
+    public Getter createFieldGetter(final ResolvedField field) {
+        return delegate.createFieldGetter(field);
+    }
+
+    @Override
+    public Setter createFieldSetter(final ResolvedField field) {
+        return delegate.createFieldSetter(field);
+    }
+
+    @Override
+    public <T> ProxyFactory<T> createDynamicProxyFactory(final ResolvedType facadeInterface,
+                                                         final ReflectMaid reflectMaid) {
+        return delegate.createDynamicProxyFactory(facadeInterface, reflectMaid);
+    }
+
+    private static final class JavaExecutor implements Executor {
+        private final Executor delegate;
+
+        private JavaExecutor(final Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object execute(final Object instance, final List<?> parameters) {
+            return delegate.execute(instance, parameters);
+        }
+    }
+}
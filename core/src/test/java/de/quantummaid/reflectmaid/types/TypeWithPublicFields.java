@@ -24,6 +24,10 @@ package de.quantummaid.reflectmaid.types;
 public final class TypeWithPublicFields {
     public static String staticField;
     public String field;
+    public int intField;
+    public long longField;
+    public double doubleField;
+    public boolean booleanField;
 
     public static String concat(final String a, final String b) {
         return a + b;
@@ -0,0 +1,370 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.bytecodeexecutor
+
+import de.quantummaid.reflectmaid.*
+import de.quantummaid.reflectmaid.bytecodeexecutor.classfile.*
+import java.lang.reflect.Constructor
+import java.lang.reflect.Executable
+import java.lang.reflect.Field
+import java.lang.reflect.Member
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.reflect.KClass
+
+private const val MAX_FIXED_ARITY = 4
+private const val INDEX_FIELD = "index"
+private val OBJECT = Any::class.java
+private val ARRAY_BASED_EXECUTOR = internalNameOf(ArrayBasedExecutor::class.java)
+private val UNSUPPORTED_OPERATION = internalNameOf(UnsupportedOperationException::class.java)
+
+private data class PrimitiveAccessor(val accessorType: KClass<*>, val methodName: String, val primitiveType: Class<*>)
+
+private val PRIMITIVE_GETTERS = listOf(
+    PrimitiveAccessor(IntGetter::class, "getInt", Integer.TYPE),
+    PrimitiveAccessor(LongGetter::class, "getLong", java.lang.Long.TYPE),
+    PrimitiveAccessor(DoubleGetter::class, "getDouble", java.lang.Double.TYPE),
+    PrimitiveAccessor(BooleanGetter::class, "getBoolean", java.lang.Boolean.TYPE)
+)
+
+private val PRIMITIVE_SETTERS = listOf(
+    PrimitiveAccessor(IntSetter::class, "setInt", Integer.TYPE),
+    PrimitiveAccessor(LongSetter::class, "setLong", java.lang.Long.TYPE),
+    PrimitiveAccessor(DoubleSetter::class, "setDouble", java.lang.Double.TYPE),
+    PrimitiveAccessor(BooleanSetter::class, "setBoolean", java.lang.Boolean.TYPE)
+)
+
+class AccessorGenerator(
+    private val targetPackage: String,
+    private val classDefiner: ClassDefiner = ClassDefiner(targetPackage)
+) {
+    private val counter = AtomicInteger()
+
+    fun createMethodExecutor(method: Method): Executor {
+        requireReachable(method)
+        return createExecutor(method)
+    }
+
+    fun createConstructorExecutor(constructor: Constructor<*>): Executor {
+        requireReachable(constructor)
+        return createExecutor(constructor)
+    }
+
+    fun createFieldGetter(field: Field): Getter {
+        requireReachable(field)
+        return createAccessor(Getter::class) {
+            addMethod(ACC_PUBLIC, "get", methodDescriptorOf(OBJECT, listOf(OBJECT))) {
+                readField(field, OBJECT)
+            }
+        }
+    }
+
+    fun createFieldSetter(field: Field): Setter {
+        requireWritable(field)
+        return createAccessor(Setter::class) {
+            addMethod(ACC_PUBLIC, "set", methodDescriptorOf(Void.TYPE, listOf(OBJECT, OBJECT))) {
+                writeField(field, OBJECT)
+            }
+        }
+    }
+
+    fun <T : Any> createPrimitiveFieldAccessor(field: Field, accessorType: KClass<T>): T {
+        val getter = PRIMITIVE_GETTERS.firstOrNull { it.accessorType == accessorType }
+        if (getter != null) {
+            requireReachable(field)
+            return createAccessor(accessorType) {
+                addMethod(ACC_PUBLIC, getter.methodName, methodDescriptorOf(getter.primitiveType, listOf(OBJECT))) {
+                    readField(field, getter.primitiveType)
+                }
+            }
+        }
+        val setter = PRIMITIVE_SETTERS.first { it.accessorType == accessorType }
+        requireWritable(field)
+        val descriptor = methodDescriptorOf(Void.TYPE, listOf(OBJECT, setter.primitiveType))
+        return createAccessor(accessorType) {
+            addMethod(ACC_PUBLIC, setter.methodName, descriptor) {
+                writeField(field, setter.primitiveType)
+            }
+        }
+    }
+
+    /**
+     * Generates a single class holding the accessors of all given members that generated code can reach.
+     * Every member is represented by an instance of that class which dispatches on its index, so the
+     * returned objects implement [Executor], [Getter], [Setter] and the primitive field accessors at once.
+     */
+    fun createAccessors(executables: List<Executable>, fields: List<Field>): Map<Member, Any> {
+        val members: List<Member> = executables.filter { isReachable(it) } + fields.filter { isReachable(it) }
+        if (members.isEmpty()) {
+            return emptyMap()
+        }
+        val executableIndices = members.indices.filter { members[it] is Executable }
+        val fieldIndices = members.indices.filter { members[it] is Field }
+        val writableFieldIndices = fieldIndices.filter { isWritable(members[it] as Field) }
+        val interfaces = listOf(Getter::class, Setter::class) +
+                PRIMITIVE_GETTERS.map { it.accessorType } +
+                PRIMITIVE_SETTERS.map { it.accessorType }
+
+        val accessorClass = createClass(ArrayBasedExecutor::class.java, interfaces.map { it.java }) { className ->
+            addField(ACC_PRIVATE or ACC_FINAL, INDEX_FIELD, "I")
+            addMethod(ACC_PUBLIC, "<init>", "(I)V") {
+                aload(0)
+                invokespecial(ARRAY_BASED_EXECUTOR, "<init>", "()V")
+                aload(0)
+                iload(1)
+                putfield(className, INDEX_FIELD, "I")
+                returnVoid()
+            }
+
+            addDispatchingMethod(className, "execute", OBJECT, listOf(OBJECT, Array<Any>::class.java),
+                executableIndices.cases { index -> invokeExecutable(members[index] as Executable, ARRAY_PARAMETER) }
+            ) { throwNew(UNSUPPORTED_OPERATION) }
+            (0..MAX_FIXED_ARITY).forEach { arity ->
+                val cases = executableIndices
+                    .filter { (members[it] as Executable).parameterCount == arity }
+                    .cases { index -> invokeWithFixedArity(members[index] as Executable) }
+                if (cases.isNotEmpty()) {
+                    val name = "execute$arity"
+                    val parameterTypes = (0..arity).map { OBJECT }
+                    addDispatchingMethod(className, name, OBJECT, parameterTypes, cases) {
+                        (0..arity + 1).forEach { aload(it) }
+                        invokespecial(ARRAY_BASED_EXECUTOR, name, methodDescriptorOf(OBJECT, parameterTypes))
+                        returnValue(OBJECT)
+                    }
+                }
+            }
+
+            addDispatchingMethod(className, "get", OBJECT, listOf(OBJECT),
+                fieldIndices.cases { index -> readField(members[index] as Field, OBJECT) }
+            ) { throwNew(UNSUPPORTED_OPERATION) }
+            addDispatchingMethod(className, "set", Void.TYPE, listOf(OBJECT, OBJECT),
+                writableFieldIndices.cases { index -> writeField(members[index] as Field, OBJECT) }
+            ) { throwNew(UNSUPPORTED_OPERATION) }
+            PRIMITIVE_GETTERS.forEach { (_, methodName, primitiveType) ->
+                val cases = fieldIndices
+                    .filter { (members[it] as Field).type == primitiveType }
+                    .cases { index -> readField(members[index] as Field, primitiveType) }
+                addDispatchingMethod(className, methodName, primitiveType, listOf(OBJECT), cases) {
+                    throwNew(UNSUPPORTED_OPERATION)
+                }
+            }
+            PRIMITIVE_SETTERS.forEach { (_, methodName, primitiveType) ->
+                val cases = writableFieldIndices
+                    .filter { (members[it] as Field).type == primitiveType }
+                    .cases { index -> writeField(members[index] as Field, primitiveType) }
+                addDispatchingMethod(className, methodName, Void.TYPE, listOf(OBJECT, primitiveType), cases) {
+                    throwNew(UNSUPPORTED_OPERATION)
+                }
+            }
+        }
+
+        val constructor = accessorClass.getDeclaredConstructor(Integer.TYPE)
+        return members.withIndex().associate { (index, member) -> member to constructor.newInstance(index) }
+    }
+
+    fun createClassName(): String {
+        return "$targetPackage.GeneratedAccessor${counter.getAndIncrement()}"
+    }
+
+    private fun createExecutor(executable: Executable): Executor {
+        val executorClass = createClass(ArrayBasedExecutor::class.java, emptyList()) {
+            addDefaultConstructor()
+            addMethod(ACC_PUBLIC, "execute", methodDescriptorOf(OBJECT, listOf(OBJECT, Array<Any>::class.java))) {
+                invokeExecutable(executable, ARRAY_PARAMETER)
+            }
+            val arity = executable.parameterCount
+            if (arity <= MAX_FIXED_ARITY) {
+                val descriptor = methodDescriptorOf(OBJECT, (0..arity).map { OBJECT })
+                addMethod(ACC_PUBLIC, "execute$arity", descriptor) { invokeWithFixedArity(executable) }
+            }
+        }
+        return executorClass.getDeclaredConstructor().newInstance() as Executor
+    }
+
+    private fun <T : Any> createAccessor(accessorType: KClass<T>, methods: ClassFileWriter.() -> Unit): T {
+        val accessorClass = createClass(OBJECT, listOf(accessorType.java)) {
+            addDefaultConstructor()
+            methods.invoke(this)
+        }
+        return accessorType.java.cast(accessorClass.getDeclaredConstructor().newInstance())
+    }
+
+    internal fun createClass(
+        superclass: Class<*>,
+        interfaces: List<Class<*>>,
+        members: ClassFileWriter.(String) -> Unit
+    ): Class<*> {
+        val className = createClassName()
+        val internalName = className.replace('.', '/')
+        val writer = ClassFileWriter(internalName, internalNameOf(superclass), interfaces.map { internalNameOf(it) })
+        members.invoke(writer, internalName)
+        return classDefiner.defineClass(className, writer.toByteArray())
+    }
+}
+
+private val ARRAY_PARAMETER: CodeBuilder.(Int) -> Unit = { index ->
+    aload(2)
+    pushInt(index)
+    aaload()
+}
+
+private fun CodeBuilder.invokeWithFixedArity(executable: Executable) {
+    invokeExecutable(executable) { index -> aload(index + 2) }
+}
+
+private fun List<Int>.cases(body: CodeBuilder.(Int) -> Unit): Map<Int, CodeBuilder.() -> Unit> {
+    return associateWith { index -> { body.invoke(this, index) } }
+}
+
+private fun isReachable(member: Member): Boolean {
+    val declaringClass = member.declaringClass
+    if (!Modifier.isPublic(member.modifiers) || !isAccessible(declaringClass)) {
+        return false
+    }
+    if (member !is Executable) {
+        return true
+    }
+    return member.parameterTypes.all { isAccessible(it) } &&
+            (member !is Constructor<*> || !Modifier.isAbstract(declaringClass.modifiers))
+}
+
+internal fun isWritable(field: Field): Boolean {
+    return isReachable(field) && !Modifier.isFinal(field.modifiers) && isAccessible(field.type)
+}
+
+private fun isAccessible(type: Class<*>): Boolean {
+    return when {
+        type.isPrimitive -> true
+        type.isArray -> isAccessible(type.componentType)
+        else -> Modifier.isPublic(type.modifiers)
+    }
+}
+
+private fun requireReachable(member: Member) {
+    if (!isReachable(member)) {
+        throw InaccessibleMemberException(
+            "cannot generate an accessor for '$member' because generated code can only access " +
+                    "public members of public types whose parameters are public types " +
+                    "and constructors of non-abstract classes"
+        )
+    }
+}
+
+private fun requireWritable(field: Field) {
+    requireReachable(field)
+    if (!isWritable(field)) {
+        throw InaccessibleMemberException(
+            "cannot generate a setter for '$field' because generated code can only write " +
+                    "non-final fields of public types"
+        )
+    }
+}
+
+private fun ClassFileWriter.addDispatchingMethod(
+    className: String,
+    name: String,
+    returnType: Class<*>,
+    parameterTypes: List<Class<*>>,
+    cases: Map<Int, CodeBuilder.() -> Unit>,
+    defaultCase: CodeBuilder.() -> Unit
+) {
+    addMethod(ACC_PUBLIC, name, methodDescriptorOf(returnType, parameterTypes)) {
+        aload(0)
+        getfield(className, INDEX_FIELD, "I")
+        tableswitch(cases, defaultCase)
+    }
+}
+
+private fun CodeBuilder.invokeExecutable(executable: Executable, loadParameter: CodeBuilder.(Int) -> Unit) {
+    val declaringClass = executable.declaringClass
+    val owner = internalNameOf(declaringClass)
+    val parameterTypes = executable.parameterTypes
+    val loadParameters = {
+        parameterTypes.forEachIndexed { index, parameterType ->
+            loadParameter.invoke(this, index)
+            unboxOrCast(parameterType)
+        }
+    }
+    if (executable is Method) {
+        val descriptor = methodDescriptorOf(executable.returnType, parameterTypes.toList())
+        val isStatic = Modifier.isStatic(executable.modifiers)
+        if (!isStatic) {
+            aload(1)
+            checkcast(owner)
+        }
+        loadParameters.invoke()
+        when {
+            isStatic -> invokestatic(owner, executable.name, descriptor, declaringClass.isInterface)
+            declaringClass.isInterface -> invokeinterface(owner, executable.name, descriptor)
+            else -> invokevirtual(owner, executable.name, descriptor)
+        }
+        if (executable.returnType == Void.TYPE) {
+            aconstNull()
+        } else {
+            box(executable.returnType)
+        }
+    } else {
+        newInstance(owner)
+        dup()
+        loadParameters.invoke()
+        invokespecial(owner, "<init>", methodDescriptorOf(Void.TYPE, parameterTypes.toList()))
+    }
+    returnValue(OBJECT)
+}
+
+private fun CodeBuilder.readField(field: Field, returnType: Class<*>) {
+    val owner = internalNameOf(field.declaringClass)
+    val fieldDescriptor = descriptorOf(field.type)
+    if (Modifier.isStatic(field.modifiers)) {
+        getstatic(owner, field.name, fieldDescriptor)
+    } else {
+        aload(1)
+        checkcast(owner)
+        getfield(owner, field.name, fieldDescriptor)
+    }
+    if (!returnType.isPrimitive) {
+        box(field.type)
+    }
+    returnValue(returnType)
+}
+
+private fun CodeBuilder.writeField(field: Field, valueType: Class<*>) {
+    val owner = internalNameOf(field.declaringClass)
+    val fieldDescriptor = descriptorOf(field.type)
+    val isStatic = Modifier.isStatic(field.modifiers)
+    if (!isStatic) {
+        aload(1)
+        checkcast(owner)
+    }
+    load(valueType, 2)
+    if (!valueType.isPrimitive) {
+        unboxOrCast(field.type)
+    }
+    if (isStatic) {
+        putstatic(owner, field.name, fieldDescriptor)
+    } else {
+        putfield(owner, field.name, fieldDescriptor)
+    }
+    returnVoid()
+}
+
+class InaccessibleMemberException(message: String) : RuntimeException(message)
\ No newline at end of file
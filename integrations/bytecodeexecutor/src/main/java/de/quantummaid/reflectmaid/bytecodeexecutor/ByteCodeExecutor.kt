@@ -23,18 +23,44 @@ package de.quantummaid.reflectmaid.bytecodeexecutor
 import com.squareup.javapoet.*
 import de.quantummaid.reflectmaid.*
 import de.quantummaid.reflectmaid.bytecodeexecutor.FieldsAndConstructor.Companion.empty
+import de.quantummaid.reflectmaid.bytecodeexecutor.compilation.CompiledClassCache
+import de.quantummaid.reflectmaid.bytecodeexecutor.compilation.CompiledClassCache.Companion.noCompiledClassCache
+import de.quantummaid.reflectmaid.bytecodeexecutor.compilation.CompiledClassCache.Companion.onDiskCompiledClassCache
 import de.quantummaid.reflectmaid.bytecodeexecutor.compilation.InMemoryCompiler
+import de.quantummaid.reflectmaid.bytecodeexecutor.compilation.contentHash
 import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedConstructor
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedField
 import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
-import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedParameter
 import de.reflectmaid.quantummaid.javapoet.toTypeName
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Member
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
 import javax.lang.model.element.Modifier
 import javax.lang.model.element.Modifier.*
 import kotlin.reflect.KClass
 
-class ByteCodeExecutorFactory(private val generator: Generator) : ExecutorFactory {
+class ByteCodeExecutorFactory(
+    private val generator: Generator,
+    private val accessorGenerator: AccessorGenerator
+) : ExecutorFactory {
+
+    // held weakly per declaring class, so that prepared accessors do not keep their classes from being unloaded
+    private val preparedAccessors = object : ClassValue<ConcurrentHashMap<Member, Any>>() {
+        override fun computeValue(type: Class<*>) = ConcurrentHashMap<Member, Any>()
+    }
+    private val proxyClasses = object : ClassValue<ConcurrentHashMap<String, GeneratedProxyClasses>>() {
+        override fun computeValue(type: Class<*>) = ConcurrentHashMap<String, GeneratedProxyClasses>()
+    }
+    private val decoratorClasses = GeneratedDecoratorClasses(accessorGenerator)
+
+    constructor(generator: Generator) : this(
+        generator,
+        AccessorGenerator(generator.targetPackage, generator.classDefiner)
+    )
 
     companion object {
         @JvmStatic
@@ -46,141 +72,241 @@ class ByteCodeExecutorFactory(private val generator: Generator) : ExecutorFactor
         fun byteCodeExecutorFactory(targetPackage: String): ByteCodeExecutorFactory {
             return ByteCodeExecutorFactory(Generator(targetPackage))
         }
+
+        @JvmStatic
+        fun byteCodeExecutorFactory(targetPackage: String, classCacheDirectory: Path): ByteCodeExecutorFactory {
+            val compiledClassCache = onDiskCompiledClassCache(classCacheDirectory)
+            return ByteCodeExecutorFactory(Generator(targetPackage, ClassDefiner(targetPackage), compiledClassCache))
+        }
     }
 
-    override fun createMethodExecutor(method: ResolvedMethod): Executor {
-        val builder = overrideMethod("execute")
-            .returns(Any::class.java)
-            .addParameter(Any::class.java, "instance", FINAL)
-            .addParameter(List::class.java, "parameters", FINAL)
-        val declaringClass = method.declaringType.toTypeName()
-        builder.addStatement("final \$T typedInstance = (\$T) instance", declaringClass, declaringClass)
-        val parametersString = buildParameters(method.parameters, builder)
-        val methodCall = "typedInstance.${method.name}($parametersString)"
-        if (method.returnType != null) {
-            builder.addStatement("return $methodCall")
-        } else {
-            builder.addStatement(methodCall)
-            builder.addStatement("return null")
+    /**
+     * Generates the accessors for all methods, constructors and fields of [resolvedType] as one class,
+     * so that subsequently created executors, getters and setters of that type share it.
+     * Members inherited from classes of another class loader are left out, because their prepared
+     * accessors would keep [resolvedType] from being unloaded.
+     */
+    fun prepare(resolvedType: ResolvedType) {
+        val classLoader = resolvedType.assignableType().classLoader
+        val methods = resolvedType.methods().map { it.method }
+        val executables = (methods + resolvedType.constructors().map { it.constructor })
+            .filter { it.declaringClass.classLoader === classLoader }
+        val fields = resolvedType.fields().map { it.field }
+            .filter { it.declaringClass.classLoader === classLoader }
+        accessorGenerator.createAccessors(executables, fields).forEach { (member, accessor) ->
+            preparedAccessors.get(member.declaringClass)[member] = accessor
         }
-        return generator.createInstance(Executor::class, builder.build()) as Executor
+    }
+
+    override fun createMethodExecutor(method: ResolvedMethod): Executor {
+        return prepared(method.method) ?: accessorGenerator.createMethodExecutor(method.method)
     }
 
     override fun createConstructorExecutor(constructor: ResolvedConstructor): Executor {
-        val builder = overrideMethod("execute")
-            .addModifiers(PUBLIC)
-            .returns(Any::class.java)
-            .addParameter(Any::class.java, "instance", FINAL)
-            .addParameter(List::class.java, "parameters", FINAL)
-        val parametersString = buildParameters(constructor.parameters, builder)
-        builder.addStatement("return new \$T($parametersString)", constructor.declaringType.toTypeName())
-        return generator.createInstance(Executor::class, builder.build()) as Executor
+        return prepared(constructor.constructor) ?: accessorGenerator.createConstructorExecutor(constructor.constructor)
     }
 
     override fun createFieldGetter(field: ResolvedField): Getter {
-        val getterMethod = overrideMethod("get")
-            .returns(Any::class.java)
-            .addParameter(Any::class.java, "instance", FINAL)
-            .addStatement("return ((\$T)instance).${field.name}", field.declaringType.toTypeName())
-            .build()
-        return generator.createInstance(Getter::class, getterMethod) as Getter
+        return prepared(field.field) ?: accessorGenerator.createFieldGetter(field.field)
     }
 
     override fun createFieldSetter(field: ResolvedField): Setter {
-        val setterMethod = overrideMethod("set")
-            .returns(Void.TYPE)
-            .addParameter(Any::class.java, "instance", FINAL)
-            .addParameter(Any::class.java, "value", FINAL)
-            .addStatement(
-                "((\$T)instance).${field.name} = (\$T) value",
-                field.declaringType.toTypeName(),
-                field.type.toTypeName()
-            )
-            .build()
-        return generator.createInstance(Setter::class, setterMethod) as Setter
+        return preparedSetter(field.field) ?: accessorGenerator.createFieldSetter(field.field)
+    }
+
+    override fun createIntFieldGetter(field: ResolvedField) = createPrimitiveFieldAccessor(field, IntGetter::class)
+    override fun createLongFieldGetter(field: ResolvedField) = createPrimitiveFieldAccessor(field, LongGetter::class)
+    override fun createDoubleFieldGetter(field: ResolvedField) = createPrimitiveFieldAccessor(field, DoubleGetter::class)
+    override fun createBooleanFieldGetter(field: ResolvedField) = createPrimitiveFieldAccessor(field, BooleanGetter::class)
+    override fun createIntFieldSetter(field: ResolvedField) = createPrimitiveFieldSetter(field, IntSetter::class)
+    override fun createLongFieldSetter(field: ResolvedField) = createPrimitiveFieldSetter(field, LongSetter::class)
+    override fun createDoubleFieldSetter(field: ResolvedField) = createPrimitiveFieldSetter(field, DoubleSetter::class)
+    override fun createBooleanFieldSetter(field: ResolvedField) = createPrimitiveFieldSetter(field, BooleanSetter::class)
+
+    private fun <T : Any> createPrimitiveFieldAccessor(field: ResolvedField, accessorType: KClass<T>): T {
+        return prepared(field.field) ?: accessorGenerator.createPrimitiveFieldAccessor(field.field, accessorType)
+    }
+
+    private fun <T : Any> createPrimitiveFieldSetter(field: ResolvedField, setterType: KClass<T>): T {
+        return preparedSetter(field.field) ?: accessorGenerator.createPrimitiveFieldAccessor(field.field, setterType)
     }
 
     @Suppress("UNCHECKED_CAST")
+    private fun <T> prepared(member: Member): T? {
+        return preparedAccessors.get(member.declaringClass)[member] as T?
+    }
+
+    private fun <T> preparedSetter(field: java.lang.reflect.Field): T? {
+        return if (isWritable(field)) prepared(field) else null
+    }
+
     override fun <T> createDynamicProxyFactory(facadeInterface: ResolvedType, reflectMaid: ReflectMaid): ProxyFactory<T> {
-        return ProxyFactory { handler ->
-            val proxyHandlerName = "proxyHandler"
-
-            val methods = facadeInterface.methods()
-            val methodFields = methods.map { Field(it.name + "Method", TypeName.get(ResolvedMethod::class.java)) }
-            val fieldsAndConstructor = FieldsAndConstructor.createFieldsAndConstructor(
-                listOf(
-                    Field(proxyHandlerName, TypeName.get(ProxyHandler::class.java))
-                ) + methodFields
-            )
-
-            val methodSpecs = methods.map { method ->
-                val methodSpec = overrideMethod(method.name)
-                val returnType = method.returnType
-                val returnTypeName = returnType?.toTypeName() ?: TypeName.VOID
-                methodSpec.returns(returnTypeName)
-                val listType = ParameterizedTypeName.get(List::class.java, Any::class.java)
-
-                method.parameters.forEach {
-                    methodSpec.addParameter(it.type.toTypeName(), it.name(), Modifier.FINAL)
-                }
-
-                val parametersForList = method.parameters.joinToString { it.name() }
-                methodSpec.addStatement("final \$T list = \$T.of($parametersForList)", listType, List::class.java)
-                methodSpec.addStatement(
-                    "final \$T returnValue = $proxyHandlerName.invoke(${method.name + "Method"}, list)",
-                    Any::class.java
-                )
-                if (returnType != null) {
-                    methodSpec.addStatement("return (\$T) returnValue", returnType.toTypeName())
-                }
-
-                methodSpec.build()
+        return createIndexedDynamicProxyFactory(facadeInterface, reflectMaid)
+    }
+
+    /**
+     * The generated proxy classes only depend on the facade interface and its type arguments, so they are
+     * cached per facade class and shared by all [ReflectMaid]s, while the returned factory reports the
+     * methods as resolved by [reflectMaid].
+     */
+    override fun <T> createIndexedDynamicProxyFactory(
+        facadeInterface: ResolvedType,
+        reflectMaid: ReflectMaid
+    ): IndexedProxyFactory<T> {
+        val classesByTypeArguments = proxyClasses.get(facadeInterface.assignableType())
+        val description = facadeInterface.description()
+        // compiled outside of the map, a concurrently compiled duplicate is discarded
+        val classes = classesByTypeArguments[description] ?: createProxyClasses(facadeInterface).let {
+            classesByTypeArguments.putIfAbsent(description, it) ?: it
+        }
+        return GeneratedProxyFactory(facadeInterface.methods(), classes) { createBoundProxyConstructor(facadeInterface) }
+    }
+
+    override fun <T> createDecoratorFactory(facadeInterface: ResolvedType, reflectMaid: ReflectMaid): DecoratorFactory<T> {
+        return decoratorClasses.createDecoratorFactory(facadeInterface)
+    }
+
+    private fun createProxyClasses(facadeInterface: ResolvedType): GeneratedProxyClasses {
+        val proxyHandler = Field("proxyHandler", TypeName.get(IndexedProxyHandler::class.java))
+        val proxyClass = createProxyClass(facadeInterface, listOf(proxyHandler)) { methodIndex, arguments ->
+            "${proxyHandler.name}.invoke($methodIndex, $arguments)"
+        }
+        val constructor = proxyConstructor(proxyClass, IndexedProxyHandler::class.java)
+            .asType(MethodType.methodType(Any::class.java, IndexedProxyHandler::class.java))
+        return GeneratedProxyClasses(constructor)
+    }
+
+    private fun createBoundProxyConstructor(facadeInterface: ResolvedType): MethodHandle {
+        val methods = facadeInterface.methods()
+        val handlerFields = methods.indices.map { Field("handler$it", TypeName.get(MethodProxyHandler::class.java)) }
+        val boundProxyClass = createProxyClass(facadeInterface, handlerFields) { methodIndex, arguments ->
+            "${handlerFields[methodIndex].name}.invoke($arguments)"
+        }
+        val handlerTypes = methods.map { MethodProxyHandler::class.java }.toTypedArray()
+        return proxyConstructor(boundProxyClass, *handlerTypes)
+            .asSpreader(Array<MethodProxyHandler>::class.java, methods.size)
+            .asType(MethodType.methodType(Any::class.java, Array<MethodProxyHandler>::class.java))
+    }
+
+    private fun createProxyClass(
+        facadeInterface: ResolvedType,
+        fields: List<Field>,
+        invocation: (Int, String) -> String
+    ): Class<*> {
+        val methodSpecs = facadeInterface.methods().mapIndexed { methodIndex, method ->
+            val methodSpec = overrideMethod(method.name)
+            val returnType = method.returnType
+            val returnTypeName = returnType?.toTypeName() ?: TypeName.VOID
+            methodSpec.returns(returnTypeName)
+
+            method.parameters.forEach {
+                methodSpec.addParameter(it.type.toTypeName(), it.name(), Modifier.FINAL)
             }
-            val compiledClass = generator.createClass(facadeInterface.toTypeName(), methodSpecs, fieldsAndConstructor)
 
-            val declaredConstructor = compiledClass.getDeclaredConstructor(
-                ProxyHandler::class.java, *methods.map { ResolvedMethod::class.java }.toTypedArray()
-            )
-            declaredConstructor.newInstance(handler, *methods.toTypedArray()) as T
+            val arguments = "new Object[]{${method.parameters.joinToString { it.name() }}}"
+            methodSpec.addStatement("final \$T returnValue = ${invocation(methodIndex, arguments)}", Any::class.java)
+            if (returnType != null) {
+                methodSpec.addStatement("return (\$T) returnValue", returnType.toTypeName())
+            }
+
+            methodSpec.build()
         }
+        val fieldsAndConstructor = FieldsAndConstructor.createFieldsAndConstructor(fields)
+        return generator.createClass(facadeInterface.toTypeName(), methodSpecs, fieldsAndConstructor)
+    }
+
+    private fun proxyConstructor(proxyClass: Class<*>, vararg parameterTypes: Class<*>): MethodHandle {
+        val declaredConstructor = proxyClass.getDeclaredConstructor(*parameterTypes)
+        return MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+    }
+}
+
+private class GeneratedProxyClasses(val constructor: MethodHandle) {
+    @Volatile
+    private var boundConstructor: MethodHandle? = null
+
+    fun boundConstructor(createBoundConstructor: () -> MethodHandle): MethodHandle {
+        return boundConstructor ?: createBoundConstructor().also { boundConstructor = it }
+    }
+}
+
+private class GeneratedProxyFactory<T>(
+    private val methods: List<ResolvedMethod>,
+    private val classes: GeneratedProxyClasses,
+    private val createBoundConstructor: () -> MethodHandle
+) : IndexedProxyFactory<T> {
+
+    override fun methods(): List<ResolvedMethod> {
+        return methods
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun createIndexedProxy(handler: IndexedProxyHandler): T {
+        val proxy: Any = classes.constructor.invokeExact(handler) as Any
+        return proxy as T
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun createBoundProxy(handlers: Map<ResolvedMethod, MethodProxyHandler>): T {
+        val boundHandlers = bindMethodProxyHandlers(methods, handlers)
+        val proxy: Any = classes.boundConstructor(createBoundConstructor).invokeExact(boundHandlers) as Any
+        return proxy as T
     }
 }
 
-class Generator(private val targetPackage: String) {
+class Generator(
+    val targetPackage: String,
+    val classDefiner: ClassDefiner = ClassDefiner(targetPackage),
+    private val compiledClassCache: CompiledClassCache = noCompiledClassCache()
+) {
     fun createInstance(implements: KClass<*>, methodSpec: MethodSpec): Any {
-        val typeName = TypeName.get(implements.java)
-        val compiledClass = createClass(typeName, listOf(methodSpec))
+        return createInstance(implements, listOf(methodSpec))
+    }
+
+    fun createInstance(supertype: KClass<*>, methodSpecs: List<MethodSpec>): Any {
+        val typeName = TypeName.get(supertype.java)
+        val compiledClass = if (supertype.java.isInterface) {
+            createClass(typeName, methodSpecs)
+        } else {
+            createClass(null, methodSpecs, empty(), typeName)
+        }
         val declaredConstructor = compiledClass.getDeclaredConstructor()
         return declaredConstructor.newInstance()
     }
 
     fun createClass(
-        implements: TypeName,
+        implements: TypeName?,
         methodSpecs: List<MethodSpec>,
-        fieldsAndConstructor: FieldsAndConstructor = empty()
+        fieldsAndConstructor: FieldsAndConstructor = empty(),
+        extends: TypeName? = null
     ): Class<*> {
-        val className = createClassName()
-        val typeSpec = TypeSpec.classBuilder(className)
-            .addModifiers(PUBLIC, FINAL)
-            .addSuperinterface(implements)
-        methodSpecs.forEach { typeSpec.addMethod(it) }
-        fieldsAndConstructor.apply(typeSpec)
-        val javaFile = JavaFile.builder(targetPackage, typeSpec.build()).build()
-        val stringBuilder = StringBuilder()
-        javaFile.writeTo(stringBuilder)
-        val program = stringBuilder.toString()
-        val compiler = InMemoryCompiler.createInMemoryCompiler()
-        return compiler.compileAndLoad(program, "$targetPackage.$className")
-    }
-
-    private var counter = 0
-    private fun createClassName(): String {
-        val className = "GeneratedClass$counter"
-        counter += 1
-        return className
+        val createProgram = { className: String ->
+            val typeSpec = TypeSpec.classBuilder(className)
+                .addModifiers(PUBLIC, FINAL)
+            implements?.let { typeSpec.addSuperinterface(it) }
+            extends?.let { typeSpec.superclass(it) }
+            methodSpecs.forEach { typeSpec.addMethod(it) }
+            fieldsAndConstructor.apply(typeSpec)
+            val javaFile = JavaFile.builder(targetPackage, typeSpec.build()).build()
+            val stringBuilder = StringBuilder()
+            javaFile.writeTo(stringBuilder)
+            stringBuilder.toString()
+        }
+        val className = CLASS_NAME_PREFIX + contentHash(createProgram.invoke(CLASS_NAME_PREFIX))
+        val program = createProgram.invoke(className)
+        val qualifiedClassName = "$targetPackage.$className"
+        return compiledClassCache.lookUp(
+            program,
+            qualifiedClassName,
+            { InMemoryCompiler.createInMemoryCompiler().compile(program, qualifiedClassName) },
+            { classDefiner.defineClass(qualifiedClassName, it) }
+        )
     }
 }
 
+// generated classes are named after a hash of their source, independent of the order they are generated in
+private const val CLASS_NAME_PREFIX = "GeneratedClass"
+
 fun overrideMethod(name: String): MethodSpec.Builder {
     return MethodSpec.methodBuilder(name)
         .addAnnotation(Override::class.java)
@@ -192,17 +318,6 @@ fun overrideMethod(name: String): MethodSpec.Builder {
         .addModifiers(PUBLIC)
 }
 
-private fun buildParameters(parameters: List<ResolvedParameter>, builder: MethodSpec.Builder): String {
-    val parameterNames = ArrayList<String>()
-    parameters.forEachIndexed { i, parameter ->
-        val parameterType = parameter.type.toTypeName()
-        val parameterName = "parameter$i"
-        builder.addStatement("final \$T $parameterName = (\$T) parameters.get($i)", parameterType, parameterType)
-        parameterNames.add(parameterName)
-    }
-    return parameterNames.joinToString(separator = ", ")
-}
-
 data class FieldsAndConstructor(val fieldSpecs: List<FieldSpec>, val constructor: MethodSpec) {
     companion object {
         fun empty(): FieldsAndConstructor {
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.bytecodeexecutor
+
+import de.quantummaid.reflectmaid.bytecodeexecutor.classfile.ACC_PUBLIC
+import de.quantummaid.reflectmaid.bytecodeexecutor.classfile.ACC_STATIC
+import de.quantummaid.reflectmaid.bytecodeexecutor.classfile.ClassFileWriter
+import de.quantummaid.reflectmaid.bytecodeexecutor.classfile.descriptorOf
+import de.quantummaid.reflectmaid.bytecodeexecutor.classfile.internalNameOf
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodHandles.Lookup
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+
+private const val ANCHOR_CLASS_NAME = "GeneratedClassAnchor"
+
+/**
+ * Defines the classes generated for one executor factory. On JDKs supporting hidden classes, they are
+ * defined through [Lookup.defineHiddenClass] and can be unloaded as soon as their accessors are unreachable.
+ * Otherwise they all share one class loader, which becomes unreachable together with the factory.
+ */
+class ClassDefiner(
+    private val targetPackage: String,
+    parent: ClassLoader? = ClassDefiner::class.java.classLoader
+) {
+    private val classLoader = GeneratedClassLoader(parent)
+    private val hiddenClassLookup: Lookup? by lazy { createHiddenClassLookup() }
+
+    fun defineClass(name: String, bytes: ByteArray): Class<*> {
+        val lookup = hiddenClassLookup ?: return classLoader.define(name, bytes)
+        val hiddenClassLookup = try {
+            DEFINE_HIDDEN_CLASS!!.invoke(lookup, bytes, true, NO_CLASS_OPTIONS) as Lookup
+        } catch (e: InvocationTargetException) {
+            throw e.targetException
+        }
+        return hiddenClassLookup.lookupClass()
+    }
+
+    private fun createHiddenClassLookup(): Lookup? {
+        if (DEFINE_HIDDEN_CLASS == null) {
+            return null
+        }
+        val anchorName = "$targetPackage.$ANCHOR_CLASS_NAME"
+        val writer = ClassFileWriter(anchorName.replace('.', '/'), internalNameOf(Any::class.java), emptyList())
+        writer.addDefaultConstructor()
+        writer.addMethod(ACC_PUBLIC or ACC_STATIC, "lookup", "()" + descriptorOf(Lookup::class.java)) {
+            invokestatic(internalNameOf(MethodHandles::class.java), "lookup", "()" + descriptorOf(Lookup::class.java))
+            returnValue(Lookup::class.java)
+        }
+        val anchorClass = classLoader.define(anchorName, writer.toByteArray())
+        return anchorClass.getMethod("lookup").invoke(null) as Lookup
+    }
+}
+
+private val DEFINE_HIDDEN_CLASS: Method? = try {
+    val classOptionType = Class.forName("java.lang.invoke.MethodHandles\$Lookup\$ClassOption")
+    val classOptionsType = java.lang.reflect.Array.newInstance(classOptionType, 0).javaClass
+    Lookup::class.java.getMethod("defineHiddenClass", ByteArray::class.java, java.lang.Boolean.TYPE, classOptionsType)
+} catch (e: ClassNotFoundException) {
+    null
+} catch (e: NoSuchMethodException) {
+    null
+}
+
+private val NO_CLASS_OPTIONS: Any? = DEFINE_HIDDEN_CLASS?.parameterTypes?.get(2)?.componentType?.let {
+    java.lang.reflect.Array.newInstance(it, 0)
+}
+
+private class GeneratedClassLoader(parent: ClassLoader?) : ClassLoader(parent) {
+
+    /**
+     * Classes named after a hash of their source can be generated more than once, in which case
+     * the class defined first is reused.
+     */
+    @Synchronized
+    fun define(name: String, bytes: ByteArray): Class<*> {
+        return findLoadedClass(name) ?: defineClass(name, bytes, 0, bytes.size)
+    }
+}
\ No newline at end of file
@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.bytecodeexecutor
+
+import de.quantummaid.reflectmaid.DecoratorFactory
+import de.quantummaid.reflectmaid.DecoratorInterceptor
+import de.quantummaid.reflectmaid.bytecodeexecutor.classfile.*
+import de.quantummaid.reflectmaid.createDecoratorFactoryUsingInvocationHandler
+import de.quantummaid.reflectmaid.decoratedJavaMethods
+import de.quantummaid.reflectmaid.resolvedtype.ResolvedType
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
+private const val TARGET_FIELD = "target"
+private const val INTERCEPTOR_FIELD = "interceptor"
+private const val METHODS_FIELD = "methods"
+private val OBJECT = Any::class.java
+private val INTERCEPTOR = internalNameOf(DecoratorInterceptor::class.java)
+private val INTERCEPTOR_DESCRIPTOR = descriptorOf(DecoratorInterceptor::class.java)
+private val METHODS_DESCRIPTOR = descriptorOf(Array<ResolvedMethod>::class.java)
+private val CONSTRUCTOR_DESCRIPTOR = methodDescriptorOf(
+    Void.TYPE,
+    listOf(OBJECT, DecoratorInterceptor::class.java, Array<ResolvedMethod>::class.java)
+)
+private val BEFORE_DESCRIPTOR = methodDescriptorOf(
+    Void.TYPE,
+    listOf(ResolvedMethod::class.java, Array<Any>::class.java)
+)
+private val OBJECT_METHODS = listOf(
+    OBJECT.getMethod("equals", OBJECT),
+    OBJECT.getMethod("hashCode"),
+    OBJECT.getMethod("toString")
+)
+private val AFTER_DESCRIPTOR = methodDescriptorOf(
+    Void.TYPE,
+    listOf(ResolvedMethod::class.java, Array<Any>::class.java, OBJECT)
+)
+
+/**
+ * Caches the generated decorator classes per facade interface and its type arguments, so that they are shared
+ * by all ReflectMaids. The interceptor is still passed the [ResolvedMethod]s of the ReflectMaid that created
+ * the decorator factory.
+ */
+internal class GeneratedDecoratorClasses(private val accessorGenerator: AccessorGenerator) {
+    private val constructors = object : ClassValue<ConcurrentHashMap<String, DecoratorConstructors>>() {
+        override fun computeValue(type: Class<*>) = ConcurrentHashMap<String, DecoratorConstructors>()
+    }
+
+    fun <T> createDecoratorFactory(facadeInterface: ResolvedType): DecoratorFactory<T> {
+        val facade = facadeInterface.assignableType()
+        if (!Modifier.isPublic(facade.modifiers)) {
+            return createDecoratorFactoryUsingInvocationHandler(facadeInterface)
+        }
+        val javaMethods = decoratedJavaMethods(facadeInterface)
+        val methods = javaMethods.values.distinct()
+        val constructors = constructors.get(facade).computeIfAbsent(facadeInterface.description()) {
+            val methodIndices = javaMethods.mapValues { (_, resolvedMethod) -> methods.indexOf(resolvedMethod) }
+            DecoratorConstructors(accessorGenerator, facade, methodIndices)
+        }
+        return GeneratedDecoratorFactory(methods, constructors)
+    }
+}
+
+// the classes are generated on first use, outside of the cache
+private class DecoratorConstructors(
+    accessorGenerator: AccessorGenerator,
+    facade: Class<*>,
+    methodIndices: Map<Method, Int>
+) {
+    val forwarding = lazy { createDecoratorConstructor(accessorGenerator, facade, methodIndices, false) }
+    val intercepting = lazy { createDecoratorConstructor(accessorGenerator, facade, methodIndices, true) }
+}
+
+private class GeneratedDecoratorFactory<T>(
+    private val methods: List<ResolvedMethod>,
+    private val constructors: DecoratorConstructors
+) : DecoratorFactory<T> {
+    private val methodArray = methods.toTypedArray()
+
+    override fun methods(): List<ResolvedMethod> {
+        return methods
+    }
+
+    override fun createDecorator(target: T): T {
+        return createDecorator(constructors.forwarding.value, target, null)
+    }
+
+    override fun createDecorator(target: T, interceptor: DecoratorInterceptor): T {
+        return createDecorator(constructors.intercepting.value, target, interceptor)
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun createDecorator(constructor: MethodHandle, target: T, interceptor: DecoratorInterceptor?): T {
+        val targetInstance: Any = target as Any
+        val decorator: Any = constructor.invokeExact(targetInstance, interceptor, methodArray) as Any
+        return decorator as T
+    }
+}
+
+private fun createDecoratorConstructor(
+    accessorGenerator: AccessorGenerator,
+    facade: Class<*>,
+    methodIndices: Map<Method, Int>,
+    intercepting: Boolean
+): MethodHandle {
+    val facadeName = internalNameOf(facade)
+    val targetDescriptor = descriptorOf(facade)
+    val decoratorClass = accessorGenerator.createClass(OBJECT, listOf(facade)) { className ->
+        addField(ACC_PRIVATE or ACC_FINAL, TARGET_FIELD, targetDescriptor)
+        if (intercepting) {
+            addField(ACC_PRIVATE or ACC_FINAL, INTERCEPTOR_FIELD, INTERCEPTOR_DESCRIPTOR)
+            addField(ACC_PRIVATE or ACC_FINAL, METHODS_FIELD, METHODS_DESCRIPTOR)
+        }
+        addMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR) {
+            aload(0)
+            invokespecial(internalNameOf(OBJECT), "<init>", "()V")
+            aload(0)
+            aload(1)
+            checkcast(facadeName)
+            putfield(className, TARGET_FIELD, targetDescriptor)
+            if (intercepting) {
+                aload(0)
+                aload(2)
+                putfield(className, INTERCEPTOR_FIELD, INTERCEPTOR_DESCRIPTOR)
+                aload(0)
+                aload(3)
+                putfield(className, METHODS_FIELD, METHODS_DESCRIPTOR)
+            }
+            returnVoid()
+        }
+        val implementedSignatures = HashSet<Pair<String, String>>()
+        methodIndices.forEach { (method, methodIndex) ->
+            val descriptor = methodDescriptorOf(method.returnType, method.parameterTypes.toList())
+            if (!implementedSignatures.add(Pair(method.name, descriptor))) {
+                return@forEach
+            }
+            addMethod(ACC_PUBLIC, method.name, descriptor) {
+                if (intercepting) {
+                    interceptedCall(className, facade, method, methodIndex)
+                } else {
+                    forwardCall(className, facade, method)
+                    returnValue(method.returnType)
+                }
+            }
+        }
+        OBJECT_METHODS.forEach { method ->
+            addMethod(ACC_PUBLIC, method.name, methodDescriptorOf(method.returnType, method.parameterTypes.toList())) {
+                forwardCall(className, facade, method)
+                returnValue(method.returnType)
+            }
+        }
+    }
+    val constructor = MethodHandles.lookup().unreflectConstructor(
+        decoratorClass.getDeclaredConstructor(OBJECT, DecoratorInterceptor::class.java, Array<ResolvedMethod>::class.java)
+    )
+    return constructor.asType(
+        MethodType.methodType(OBJECT, OBJECT, DecoratorInterceptor::class.java, Array<ResolvedMethod>::class.java)
+    )
+}
+
+private fun CodeBuilder.forwardCall(className: String, facade: Class<*>, method: Method) {
+    aload(0)
+    getfield(className, TARGET_FIELD, descriptorOf(facade))
+    var slot = 1
+    method.parameterTypes.forEach {
+        load(it, slot)
+        slot += slotSize(it)
+    }
+    val descriptor = methodDescriptorOf(method.returnType, method.parameterTypes.toList())
+    val owner = internalNameOf(method.declaringClass)
+    if (method.declaringClass.isInterface) {
+        invokeinterface(owner, method.name, descriptor)
+    } else {
+        invokevirtual(owner, method.name, descriptor)
+    }
+}
+
+private fun CodeBuilder.interceptedCall(className: String, facade: Class<*>, method: Method, methodIndex: Int) {
+    val parameterTypes = method.parameterTypes
+    val argumentsSlot = 1 + parameterTypes.sumOf { slotSize(it) }
+    val returnValueSlot = argumentsSlot + 1
+    val returnType = method.returnType
+
+    pushInt(parameterTypes.size)
+    anewarray(internalNameOf(OBJECT))
+    var slot = 1
+    parameterTypes.forEachIndexed { index, parameterType ->
+        dup()
+        pushInt(index)
+        load(parameterType, slot)
+        box(parameterType)
+        aastore()
+        slot += slotSize(parameterType)
+    }
+    astore(argumentsSlot)
+
+    loadInterceptorAndMethod(className, methodIndex)
+    aload(argumentsSlot)
+    invokeinterface(INTERCEPTOR, "before", BEFORE_DESCRIPTOR)
+
+    forwardCall(className, facade, method)
+    if (returnType != Void.TYPE) {
+        store(returnType, returnValueSlot)
+    }
+
+    loadInterceptorAndMethod(className, methodIndex)
+    aload(argumentsSlot)
+    if (returnType == Void.TYPE) {
+        aconstNull()
+    } else {
+        load(returnType, returnValueSlot)
+        box(returnType)
+    }
+    invokeinterface(INTERCEPTOR, "after", AFTER_DESCRIPTOR)
+
+    if (returnType != Void.TYPE) {
+        load(returnType, returnValueSlot)
+    }
+    returnValue(returnType)
+}
+
+private fun CodeBuilder.loadInterceptorAndMethod(className: String, methodIndex: Int) {
+    aload(0)
+    getfield(className, INTERCEPTOR_FIELD, INTERCEPTOR_DESCRIPTOR)
+    aload(0)
+    getfield(className, METHODS_FIELD, METHODS_DESCRIPTOR)
+    pushInt(methodIndex)
+    aaload()
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.bytecodeexecutor.classfile
+
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+
+const val ACC_PUBLIC = 0x0001
+const val ACC_PRIVATE = 0x0002
+const val ACC_STATIC = 0x0008
+const val ACC_FINAL = 0x0010
+const val ACC_SUPER = 0x0020
+
+private const val MAGIC = 0xCAFEBABE.toInt()
+private const val JAVA_8_MAJOR_VERSION = 52
+
+class ClassFileWriter(
+    private val className: String,
+    private val superName: String,
+    private val interfaces: List<String>
+) {
+    private val constantPool = ConstantPool()
+    private val fields = ByteArrayOutputStream()
+    private var fieldCount = 0
+    private val methods = ByteArrayOutputStream()
+    private var methodCount = 0
+
+    fun addField(access: Int, name: String, descriptor: String) {
+        val output = DataOutputStream(fields)
+        output.writeShort(access)
+        output.writeShort(constantPool.utf8(name))
+        output.writeShort(constantPool.utf8(descriptor))
+        output.writeShort(0)
+        fieldCount += 1
+    }
+
+    fun addMethod(access: Int, name: String, descriptor: String, code: CodeBuilder.() -> Unit) {
+        val argumentSlots = argumentSlots(descriptor) + if (access and ACC_STATIC == 0) 1 else 0
+        val builder = CodeBuilder(constantPool, argumentSlots)
+        code.invoke(builder)
+        val bytecode = builder.bytecode()
+        val stackMapTable = stackMapTable(builder.frames())
+
+        val output = DataOutputStream(methods)
+        output.writeShort(access)
+        output.writeShort(constantPool.utf8(name))
+        output.writeShort(constantPool.utf8(descriptor))
+        output.writeShort(1)
+        output.writeShort(constantPool.utf8("Code"))
+        output.writeInt(12 + bytecode.size + stackMapTable.size)
+        output.writeShort(builder.maxStack())
+        output.writeShort(builder.maxLocals())
+        output.writeInt(bytecode.size)
+        output.write(bytecode)
+        output.writeShort(0)
+        if (stackMapTable.isEmpty()) {
+            output.writeShort(0)
+        } else {
+            output.writeShort(1)
+            output.write(stackMapTable)
+        }
+        methodCount += 1
+    }
+
+    fun addDefaultConstructor() {
+        addMethod(ACC_PUBLIC, "<init>", "()V") {
+            aload(0)
+            invokespecial(superName, "<init>", "()V")
+            returnVoid()
+        }
+    }
+
+    fun toByteArray(): ByteArray {
+        val thisClass = constantPool.classEntry(className)
+        val superClass = constantPool.classEntry(superName)
+        val interfaceEntries = interfaces.map { constantPool.classEntry(it) }
+
+        val bytes = ByteArrayOutputStream()
+        val output = DataOutputStream(bytes)
+        output.writeInt(MAGIC)
+        output.writeShort(0)
+        output.writeShort(JAVA_8_MAJOR_VERSION)
+        constantPool.writeTo(output)
+        output.writeShort(ACC_PUBLIC or ACC_FINAL or ACC_SUPER)
+        output.writeShort(thisClass)
+        output.writeShort(superClass)
+        output.writeShort(interfaceEntries.size)
+        interfaceEntries.forEach { output.writeShort(it) }
+        output.writeShort(fieldCount)
+        output.write(fields.toByteArray())
+        output.writeShort(methodCount)
+        output.write(methods.toByteArray())
+        output.writeShort(0)
+        output.flush()
+        return bytes.toByteArray()
+    }
+
+    /**
+     * Branch targets only ever see the method arguments as locals and an empty operand stack,
+     * so every frame can be encoded as a same_frame relative to the previous one.
+     */
+    private fun stackMapTable(frames: List<Int>): ByteArray {
+        if (frames.isEmpty()) {
+            return ByteArray(0)
+        }
+        val entries = ByteArrayOutputStream()
+        val entriesOutput = DataOutputStream(entries)
+        var previous = -1
+        frames.forEach { offset ->
+            val delta = offset - previous - 1
+            if (delta <= 63) {
+                entriesOutput.writeByte(delta)
+            } else {
+                entriesOutput.writeByte(251)
+                entriesOutput.writeShort(delta)
+            }
+            previous = offset
+        }
+
+        val bytes = ByteArrayOutputStream()
+        val output = DataOutputStream(bytes)
+        output.writeShort(constantPool.utf8("StackMapTable"))
+        output.writeInt(2 + entries.size())
+        output.writeShort(frames.size)
+        output.write(entries.toByteArray())
+        return bytes.toByteArray()
+    }
+}
+
+class ConstantPool {
+    private val entries = HashMap<String, Int>()
+    private val bytes = ByteArrayOutputStream()
+    private val output = DataOutputStream(bytes)
+    private var nextIndex = 1
+
+    fun utf8(value: String): Int {
+        return entry("utf8:$value") {
+            output.writeByte(1)
+            output.writeUTF(value)
+        }
+    }
+
+    fun classEntry(internalName: String): Int {
+        val name = utf8(internalName)
+        return entry("class:$internalName") {
+            output.writeByte(7)
+            output.writeShort(name)
+        }
+    }
+
+    fun integer(value: Int): Int {
+        return entry("int:$value") {
+            output.writeByte(3)
+            output.writeInt(value)
+        }
+    }
+
+    fun fieldReference(owner: String, name: String, descriptor: String): Int {
+        return memberReference(9, owner, name, descriptor)
+    }
+
+    fun methodReference(owner: String, name: String, descriptor: String): Int {
+        return memberReference(10, owner, name, descriptor)
+    }
+
+    fun interfaceMethodReference(owner: String, name: String, descriptor: String): Int {
+        return memberReference(11, owner, name, descriptor)
+    }
+
+    fun writeTo(classOutput: DataOutputStream) {
+        classOutput.writeShort(nextIndex)
+        classOutput.write(bytes.toByteArray())
+    }
+
+    private fun memberReference(tag: Int, owner: String, name: String, descriptor: String): Int {
+        val ownerEntry = classEntry(owner)
+        val nameEntry = utf8(name)
+        val descriptorEntry = utf8(descriptor)
+        val nameAndType = entry("nameAndType:$name:$descriptor") {
+            output.writeByte(12)
+            output.writeShort(nameEntry)
+            output.writeShort(descriptorEntry)
+        }
+        return entry("member$tag:$owner.$name:$descriptor") {
+            output.writeByte(tag)
+            output.writeShort(ownerEntry)
+            output.writeShort(nameAndType)
+        }
+    }
+
+    private fun entry(key: String, writer: () -> Unit): Int {
+        val existing = entries[key]
+        if (existing != null) {
+            return existing
+        }
+        writer.invoke()
+        val index = nextIndex
+        entries[key] = index
+        nextIndex += 1
+        return index
+    }
+}
\ No newline at end of file
@@ -0,0 +1,299 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.bytecodeexecutor.classfile
+
+import java.io.ByteArrayOutputStream
+
+class CodeBuilder internal constructor(
+    private val constantPool: ConstantPool,
+    argumentSlots: Int
+) {
+    private val code = CodeBuffer()
+    private val frames = ArrayList<Int>()
+    private var stack = 0
+    private var maxStack = 0
+    private var maxLocals = argumentSlots
+
+    fun aload(index: Int) = load(0x19, 0x2a, index, 1)
+    fun iload(index: Int) = load(0x15, 0x1a, index, 1)
+    fun lload(index: Int) = load(0x16, 0x1e, index, 2)
+    fun fload(index: Int) = load(0x17, 0x22, index, 1)
+    fun dload(index: Int) = load(0x18, 0x26, index, 2)
+
+    fun load(type: Class<*>, index: Int) {
+        when (type) {
+            java.lang.Long.TYPE -> lload(index)
+            java.lang.Float.TYPE -> fload(index)
+            java.lang.Double.TYPE -> dload(index)
+            else -> if (type.isPrimitive) iload(index) else aload(index)
+        }
+    }
+
+    fun astore(index: Int) = store(0x3a, 0x4b, index, 1)
+    fun istore(index: Int) = store(0x36, 0x3b, index, 1)
+    fun lstore(index: Int) = store(0x37, 0x3f, index, 2)
+    fun fstore(index: Int) = store(0x38, 0x43, index, 1)
+    fun dstore(index: Int) = store(0x39, 0x47, index, 2)
+
+    fun store(type: Class<*>, index: Int) {
+        when (type) {
+            java.lang.Long.TYPE -> lstore(index)
+            java.lang.Float.TYPE -> fstore(index)
+            java.lang.Double.TYPE -> dstore(index)
+            else -> if (type.isPrimitive) istore(index) else astore(index)
+        }
+    }
+
+    fun pushInt(value: Int) {
+        when (value) {
+            in -1..5 -> instruction(0x03 + value, 1)
+            in Byte.MIN_VALUE..Byte.MAX_VALUE -> {
+                instruction(0x10, 1)
+                code.write(value)
+            }
+            in Short.MIN_VALUE..Short.MAX_VALUE -> {
+                instruction(0x11, 1)
+                writeShort(value)
+            }
+            else -> {
+                instruction(0x13, 1)
+                writeShort(constantPool.integer(value))
+            }
+        }
+    }
+
+    fun aconstNull() = instruction(0x01, 1)
+    fun aaload() = instruction(0x32, -1)
+    fun aastore() = instruction(0x53, -3)
+    fun dup() = instruction(0x59, 1)
+
+    fun newInstance(internalName: String) {
+        instruction(0xbb, 1)
+        writeShort(constantPool.classEntry(internalName))
+    }
+
+    fun anewarray(internalName: String) {
+        instruction(0xbd, 0)
+        writeShort(constantPool.classEntry(internalName))
+    }
+
+    fun checkcast(internalName: String) {
+        instruction(0xc0, 0)
+        writeShort(constantPool.classEntry(internalName))
+    }
+
+    fun getfield(owner: String, name: String, descriptor: String) {
+        instruction(0xb4, slotSize(descriptor) - 1)
+        writeShort(constantPool.fieldReference(owner, name, descriptor))
+    }
+
+    fun putfield(owner: String, name: String, descriptor: String) {
+        instruction(0xb5, -slotSize(descriptor) - 1)
+        writeShort(constantPool.fieldReference(owner, name, descriptor))
+    }
+
+    fun getstatic(owner: String, name: String, descriptor: String) {
+        instruction(0xb2, slotSize(descriptor))
+        writeShort(constantPool.fieldReference(owner, name, descriptor))
+    }
+
+    fun putstatic(owner: String, name: String, descriptor: String) {
+        instruction(0xb3, -slotSize(descriptor))
+        writeShort(constantPool.fieldReference(owner, name, descriptor))
+    }
+
+    fun invokevirtual(owner: String, name: String, descriptor: String) {
+        instruction(0xb6, invocationStackDelta(descriptor, true))
+        writeShort(constantPool.methodReference(owner, name, descriptor))
+    }
+
+    fun invokespecial(owner: String, name: String, descriptor: String) {
+        instruction(0xb7, invocationStackDelta(descriptor, true))
+        writeShort(constantPool.methodReference(owner, name, descriptor))
+    }
+
+    fun invokestatic(owner: String, name: String, descriptor: String, isInterface: Boolean = false) {
+        instruction(0xb8, invocationStackDelta(descriptor, false))
+        if (isInterface) {
+            writeShort(constantPool.interfaceMethodReference(owner, name, descriptor))
+        } else {
+            writeShort(constantPool.methodReference(owner, name, descriptor))
+        }
+    }
+
+    fun invokeinterface(owner: String, name: String, descriptor: String) {
+        instruction(0xb9, invocationStackDelta(descriptor, true))
+        writeShort(constantPool.interfaceMethodReference(owner, name, descriptor))
+        code.write(argumentSlots(descriptor) + 1)
+        code.write(0)
+    }
+
+    fun returnValue(type: Class<*>) {
+        when (type) {
+            Void.TYPE -> returnVoid()
+            java.lang.Long.TYPE -> instruction(0xad, -2)
+            java.lang.Float.TYPE -> instruction(0xae, -1)
+            java.lang.Double.TYPE -> instruction(0xaf, -2)
+            else -> if (type.isPrimitive) instruction(0xac, -1) else instruction(0xb0, -1)
+        }
+    }
+
+    fun returnVoid() = instruction(0xb1, 0)
+
+    fun athrow() = instruction(0xbf, -1)
+
+    fun throwNew(internalName: String) {
+        newInstance(internalName)
+        dup()
+        invokespecial(internalName, "<init>", "()V")
+        athrow()
+    }
+
+    fun tableswitch(cases: Map<Int, CodeBuilder.() -> Unit>, defaultCase: CodeBuilder.() -> Unit) {
+        if (cases.isEmpty()) {
+            instruction(0x57, -1)
+            defaultCase.invoke(this)
+            return
+        }
+        val switchPosition = code.size()
+        instruction(0xaa, -1)
+        check(stack == 0) { "switch branches can only be taken with an empty operand stack" }
+        while (code.size() % 4 != 0) {
+            code.write(0)
+        }
+        val low = cases.keys.minOrNull()!!
+        val high = cases.keys.maxOrNull()!!
+        val tablePosition = code.size()
+        repeat(3 + high - low + 1) { writeInt(0) }
+
+        val defaultPosition = branchTarget()
+        defaultCase.invoke(this)
+        val casePositions = cases.toSortedMap().mapValues { (_, body) ->
+            val position = branchTarget()
+            body.invoke(this)
+            position
+        }
+
+        code.putInt(tablePosition, defaultPosition - switchPosition)
+        code.putInt(tablePosition + 4, low)
+        code.putInt(tablePosition + 8, high)
+        (low..high).forEachIndexed { index, key ->
+            val target = casePositions[key] ?: defaultPosition
+            code.putInt(tablePosition + 12 + index * 4, target - switchPosition)
+        }
+    }
+
+    fun unboxOrCast(type: Class<*>) {
+        if (type == Any::class.java) {
+            return
+        }
+        val wrapper = WRAPPERS[type]
+        if (wrapper == null) {
+            checkcast(internalNameOf(type))
+            return
+        }
+        val wrapperName = internalNameOf(wrapper.wrapperType)
+        checkcast(wrapperName)
+        invokevirtual(wrapperName, wrapper.unboxMethod, "()" + descriptorOf(type))
+    }
+
+    fun box(type: Class<*>) {
+        val wrapper = WRAPPERS[type] ?: return
+        val wrapperName = internalNameOf(wrapper.wrapperType)
+        invokestatic(wrapperName, "valueOf", "(" + descriptorOf(type) + ")L$wrapperName;")
+    }
+
+    internal fun bytecode(): ByteArray = code.toByteArray()
+    internal fun frames(): List<Int> = frames
+    internal fun maxStack() = maxStack
+    internal fun maxLocals() = maxLocals
+
+    private fun load(genericOpcode: Int, shortOpcode: Int, index: Int, size: Int) {
+        if (index <= 3) {
+            instruction(shortOpcode + index, size)
+        } else {
+            instruction(genericOpcode, size)
+            code.write(index)
+        }
+        maxLocals = maxOf(maxLocals, index + size)
+    }
+
+    private fun branchTarget(): Int {
+        val position = code.size()
+        frames.add(position)
+        stack = 0
+        return position
+    }
+
+    private fun store(genericOpcode: Int, shortOpcode: Int, index: Int, size: Int) {
+        if (index <= 3) {
+            instruction(shortOpcode + index, -size)
+        } else {
+            instruction(genericOpcode, -size)
+            code.write(index)
+        }
+        maxLocals = maxOf(maxLocals, index + size)
+    }
+
+    private fun instruction(opcode: Int, stackDelta: Int) {
+        code.write(opcode)
+        stack += stackDelta
+        maxStack = maxOf(maxStack, stack)
+    }
+
+    private fun writeShort(value: Int) {
+        code.write(value shr 8 and 0xff)
+        code.write(value and 0xff)
+    }
+
+    private fun writeInt(value: Int) {
+        writeShort(value shr 16)
+        writeShort(value)
+    }
+}
+
+private class CodeBuffer : ByteArrayOutputStream() {
+    fun putInt(position: Int, value: Int) {
+        buf[position] = (value shr 24).toByte()
+        buf[position + 1] = (value shr 16).toByte()
+        buf[position + 2] = (value shr 8).toByte()
+        buf[position + 3] = value.toByte()
+    }
+}
+
+private data class Wrapper(val wrapperType: Class<*>, val unboxMethod: String)
+
+private val WRAPPERS = mapOf(
+    java.lang.Boolean.TYPE to Wrapper(java.lang.Boolean::class.java, "booleanValue"),
+    java.lang.Byte.TYPE to Wrapper(java.lang.Byte::class.java, "byteValue"),
+    java.lang.Character.TYPE to Wrapper(java.lang.Character::class.java, "charValue"),
+    java.lang.Short.TYPE to Wrapper(java.lang.Short::class.java, "shortValue"),
+    java.lang.Integer.TYPE to Wrapper(java.lang.Integer::class.java, "intValue"),
+    java.lang.Long.TYPE to Wrapper(java.lang.Long::class.java, "longValue"),
+    java.lang.Float.TYPE to Wrapper(java.lang.Float::class.java, "floatValue"),
+    java.lang.Double.TYPE to Wrapper(java.lang.Double::class.java, "doubleValue")
+)
+
+private fun invocationStackDelta(descriptor: String, hasReceiver: Boolean): Int {
+    val returnDescriptor = descriptor.substring(descriptor.indexOf(')') + 1)
+    val receiver = if (hasReceiver) 1 else 0
+    return slotSize(returnDescriptor) - argumentSlots(descriptor) - receiver
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.bytecodeexecutor.classfile
+
+fun internalNameOf(type: Class<*>): String {
+    return if (type.isArray) {
+        descriptorOf(type)
+    } else {
+        type.name.replace('.', '/')
+    }
+}
+
+fun descriptorOf(type: Class<*>): String {
+    return when {
+        type == Void.TYPE -> "V"
+        type == java.lang.Boolean.TYPE -> "Z"
+        type == java.lang.Byte.TYPE -> "B"
+        type == java.lang.Character.TYPE -> "C"
+        type == java.lang.Short.TYPE -> "S"
+        type == java.lang.Integer.TYPE -> "I"
+        type == java.lang.Long.TYPE -> "J"
+        type == java.lang.Float.TYPE -> "F"
+        type == java.lang.Double.TYPE -> "D"
+        type.isArray -> type.name.replace('.', '/')
+        else -> "L" + internalNameOf(type) + ";"
+    }
+}
+
+fun methodDescriptorOf(returnType: Class<*>, parameterTypes: List<Class<*>>): String {
+    return parameterTypes.joinToString(separator = "", prefix = "(", postfix = ")") { descriptorOf(it) } +
+            descriptorOf(returnType)
+}
+
+fun slotSize(type: Class<*>): Int {
+    return slotSize(descriptorOf(type))
+}
+
+internal fun slotSize(descriptor: String): Int {
+    return when (descriptor[0]) {
+        'V' -> 0
+        'J', 'D' -> 2
+        else -> 1
+    }
+}
+
+internal fun argumentSlots(methodDescriptor: String): Int {
+    var slots = 0
+    var index = 1
+    while (methodDescriptor[index] != ')') {
+        val start = index
+        while (methodDescriptor[index] == '[') {
+            index += 1
+        }
+        if (methodDescriptor[index] == 'L') {
+            index = methodDescriptor.indexOf(';', index)
+        }
+        slots += if (start == index && (methodDescriptor[index] == 'J' || methodDescriptor[index] == 'D')) 2 else 1
+        index += 1
+    }
+    return slots
+}
\ No newline at end of file
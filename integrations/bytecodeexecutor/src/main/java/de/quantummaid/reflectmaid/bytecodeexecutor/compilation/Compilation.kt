@@ -21,8 +21,6 @@
 package de.quantummaid.reflectmaid.bytecodeexecutor.compilation
 
 import de.quantummaid.reflectmaid.bytecodeexecutor.compilation.SimpleJavaFileManager.Companion.fromCompiler
-import java.security.AccessController.doPrivileged
-import java.security.PrivilegedAction
 import java.util.*
 import javax.tools.*
 
@@ -37,13 +35,7 @@ class InMemoryCompiler(private val compiler: JavaCompiler,
         }
     }
 
-    fun compileAndLoad(program: String, className: String): Class<*> {
-        compile(program, className)
-        val classLoader = (fileManager as SimpleJavaFileManager).createClassLoader()
-        return classLoader.loadClass(className)
-    }
-
-    private fun compile(program: String, className: String) {
+    fun compile(program: String, className: String): ByteArray {
         val compilationUnit = StringJavaFileObject(className, program)
         val compilationTask = compiler.getTask(
                 null,
@@ -57,6 +49,7 @@ class InMemoryCompiler(private val compiler: JavaCompiler,
         if (!success) {
             throw IllegalStateException("compilation of class $className was not successful\n\n\n$program")
         }
+        return (fileManager as SimpleJavaFileManager).compiledClass(className)
     }
 }
 
@@ -73,8 +66,9 @@ private class SimpleJavaFileManager(fileManager: JavaFileManager) : ForwardingJa
         return file
     }
 
-    fun createClassLoader(): CompiledClassLoader {
-        return doPrivileged(PrivilegedAction { CompiledClassLoader(outputFiles) })
+    fun compiledClass(className: String): ByteArray {
+        val uri = memUri(className, JavaFileObject.Kind.CLASS)
+        return outputFiles.first { it.toUri() == uri }.bytes()
     }
 
     companion object {
@@ -84,18 +78,3 @@ private class SimpleJavaFileManager(fileManager: JavaFileManager) : ForwardingJa
         }
     }
 }
-
-private class CompiledClassLoader(private val files: MutableList<ClassJavaFileObject>) : ClassLoader() {
-    override fun findClass(name: String): Class<*> {
-        val uri = memUri(name, JavaFileObject.Kind.CLASS)
-        return files
-                .filter { it.toUri() == uri }
-                .map {
-                    val bytes = it.bytes()
-                    super.defineClass(name, bytes, 0, bytes.size)
-                }
-                .firstOrNull()
-                ?: super.findClass(name)
-    }
-}
-
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2021 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.quantummaid.reflectmaid.bytecodeexecutor.compilation
+
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+import java.security.MessageDigest
+
+interface CompiledClassCache {
+
+    companion object {
+        @JvmStatic
+        fun noCompiledClassCache(): CompiledClassCache {
+            return object : CompiledClassCache {
+                override fun lookUp(
+                    program: String,
+                    className: String,
+                    compile: () -> ByteArray,
+                    define: (ByteArray) -> Class<*>
+                ): Class<*> {
+                    return define.invoke(compile.invoke())
+                }
+            }
+        }
+
+        @JvmStatic
+        fun onDiskCompiledClassCache(directory: Path): CompiledClassCache {
+            return OnDiskCompiledClassCache(directory)
+        }
+    }
+
+    fun lookUp(program: String, className: String, compile: () -> ByteArray, define: (ByteArray) -> Class<*>): Class<*>
+}
+
+/**
+ * Stores compiled classes as files named after a hash of their source, class name and the running Java version,
+ * so that they can be loaded without invoking the compiler when the same class is generated in a later JVM.
+ * Entries that cannot be read or defined are deleted and compiled again.
+ */
+private class OnDiskCompiledClassCache(private val directory: Path) : CompiledClassCache {
+
+    override fun lookUp(
+        program: String,
+        className: String,
+        compile: () -> ByteArray,
+        define: (ByteArray) -> Class<*>
+    ): Class<*> {
+        val file = directory.resolve(contentHash(System.getProperty("java.version"), className, program) + ".class")
+        val cachedBytes = read(file)
+        if (cachedBytes != null) {
+            try {
+                return define.invoke(cachedBytes)
+            } catch (e: LinkageError) {
+                // covers truncated or otherwise corrupt entries (ClassFormatError) as well as unverifiable ones
+                delete(file)
+            }
+        }
+        val bytes = compile.invoke()
+        store(file, bytes)
+        return define.invoke(bytes)
+    }
+
+    private fun read(file: Path): ByteArray? {
+        return try {
+            if (Files.isRegularFile(file)) Files.readAllBytes(file) else null
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    private fun delete(file: Path) {
+        try {
+            Files.deleteIfExists(file)
+        } catch (e: IOException) {
+            // the entry is overwritten once the class has been compiled again
+        }
+    }
+
+    private fun store(file: Path, bytes: ByteArray) {
+        try {
+            Files.createDirectories(directory)
+            val temporaryFile = Files.createTempFile(directory, "compiling", ".tmp")
+            Files.write(temporaryFile, bytes)
+            try {
+                Files.move(temporaryFile, file, ATOMIC_MOVE)
+            } catch (e: IOException) {
+                Files.move(temporaryFile, file, REPLACE_EXISTING)
+            }
+        } catch (e: IOException) {
+            // the cache is an optimization, failing to write it must not fail the compilation
+        }
+    }
+}
+
+internal fun contentHash(vararg parts: String): String {
+    val digest = MessageDigest.getInstance("SHA-256")
+    parts.forEach {
+        digest.update(it.toByteArray(Charsets.UTF_8))
+        digest.update(0)
+    }
+    return digest.digest().joinToString(separator = "") { String.format("%02x", it) }
+}
\ No newline at end of file
@@ -20,12 +20,19 @@
  */
 package de.quantummaid.reflectmaid.bytecodeexecutor
 
+import de.quantummaid.reflectmaid.DecoratorInterceptor
+import de.quantummaid.reflectmaid.MethodProxyHandler
 import de.quantummaid.reflectmaid.ReflectMaid.Companion.aReflectMaid
 import de.quantummaid.reflectmaid.bytecodeexecutor.ByteCodeExecutorFactory.Companion.byteCodeExecutorFactory
+import de.quantummaid.reflectmaid.createDecoratorFactory
 import de.quantummaid.reflectmaid.createDynamicProxyFactory
+import de.quantummaid.reflectmaid.createIndexedDynamicProxyFactory
+import de.quantummaid.reflectmaid.resolvedtype.resolver.ResolvedMethod
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.MatcherAssert.assertThat
 import org.junit.jupiter.api.Test
+import java.nio.file.Files
+import java.util.stream.Collectors
 
 interface MyInterface {
     fun call(parameter: String): String
@@ -45,6 +52,14 @@ interface MyVoidInterface {
     fun call(parameter: MutableList<String>)
 }
 
+interface MyConsumer<T> {
+    fun accept(value: T): Int
+}
+
+interface MyStringConsumer : MyConsumer<String> {
+    override fun accept(value: String): Int
+}
+
 class ByteCodeDynamicProxySpecs {
 
     @Test
@@ -106,4 +121,202 @@ class ByteCodeDynamicProxySpecs {
         proxy.call(list)
         assertThat(list[0], `is`("foo"))
     }
+
+    @Test
+    fun dynamicProxyClassesCanBeCachedOnDisk() {
+        val cacheDirectory = Files.createTempDirectory("reflectmaid-class-cache")
+
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory("de.reflectmaid.generated", cacheDirectory))
+        val proxy = reflectMaid.createDynamicProxyFactory<MyInterface>()
+            .createProxy { _, parameters -> "first: " + parameters[0] }
+        assertThat(proxy.call("foo"), `is`("first: foo"))
+        val cachedClasses = Files.list(cacheDirectory).use { files -> files.count() }
+        assertThat(cachedClasses, `is`(1L))
+
+        val otherReflectMaid = aReflectMaid(byteCodeExecutorFactory("de.reflectmaid.generated", cacheDirectory))
+        val otherProxy = otherReflectMaid.createDynamicProxyFactory<MyInterface>()
+            .createProxy { _, parameters -> "second: " + parameters[0] }
+        assertThat(otherProxy.call("bar"), `is`("second: bar"))
+        assertThat(Files.list(cacheDirectory).use { files -> files.count() }, `is`(1L))
+    }
+
+    @Test
+    fun cachedDynamicProxyClassesDoNotDependOnGenerationOrder() {
+        val cacheDirectory = Files.createTempDirectory("reflectmaid-class-cache")
+
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory("de.reflectmaid.generated", cacheDirectory))
+        reflectMaid.createDynamicProxyFactory<MyInterface>().createProxy { _, _ -> "" }
+        reflectMaid.createDynamicProxyFactory<MyMultiMethodInterface>().createProxy { _, _ -> "" }
+        val cachedClasses = Files.list(cacheDirectory).use { files -> files.collect(Collectors.toSet()) }
+        assertThat(cachedClasses.size, `is`(2))
+
+        val otherReflectMaid = aReflectMaid(byteCodeExecutorFactory("de.reflectmaid.generated", cacheDirectory))
+        val otherProxy = otherReflectMaid.createDynamicProxyFactory<MyMultiMethodInterface>()
+            .createProxy { method, _ -> method.name }
+        otherReflectMaid.createDynamicProxyFactory<MyInterface>().createProxy { _, _ -> "" }
+        assertThat(otherProxy.method1(), `is`("method1"))
+        val otherCachedClasses = Files.list(cacheDirectory).use { files -> files.collect(Collectors.toSet()) }
+        assertThat(otherCachedClasses, `is`(cachedClasses))
+    }
+
+    @Test
+    fun corruptCachedDynamicProxyClassIsCompiledAgain() {
+        val cacheDirectory = Files.createTempDirectory("reflectmaid-class-cache")
+
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory("de.reflectmaid.generated", cacheDirectory))
+        reflectMaid.createDynamicProxyFactory<MyInterface>().createProxy { _, _ -> "" }
+        val cachedClass = Files.list(cacheDirectory).use { files -> files.findFirst().get() }
+        val cachedBytes = Files.readAllBytes(cachedClass)
+        Files.write(cachedClass, cachedBytes.copyOf(cachedBytes.size / 2))
+
+        val otherReflectMaid = aReflectMaid(byteCodeExecutorFactory("de.reflectmaid.generated", cacheDirectory))
+        val proxy = otherReflectMaid.createDynamicProxyFactory<MyInterface>()
+            .createProxy { _, parameters -> "recompiled: " + parameters[0] }
+        assertThat(proxy.call("foo"), `is`("recompiled: foo"))
+        assertThat(Files.readAllBytes(cachedClass).contentEquals(cachedBytes), `is`(true))
+    }
+
+    @Test
+    fun dynamicProxyClassIsGeneratedOncePerInterface() {
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory())
+        val proxyFactory = reflectMaid.createDynamicProxyFactory<MyInterface>()
+        val proxy0 = proxyFactory.createProxy { _, parameters -> "0: " + parameters[0] }
+        val proxy1 = proxyFactory.createProxy { _, parameters -> "1: " + parameters[0] }
+        val proxy2 = reflectMaid.createDynamicProxyFactory<MyInterface>()
+            .createProxy { _, parameters -> "2: " + parameters[0] }
+
+        assertThat(proxy0.call("a"), `is`("0: a"))
+        assertThat(proxy1.call("b"), `is`("1: b"))
+        assertThat(proxy2.call("c"), `is`("2: c"))
+        assertThat(proxy1.javaClass == proxy0.javaClass, `is`(true))
+        assertThat(proxy2.javaClass == proxy0.javaClass, `is`(true))
+    }
+
+    @Test
+    fun dynamicProxyFactoryCanBeSharedByReflectMaids() {
+        val executorFactory = byteCodeExecutorFactory()
+        val reflectMaid = aReflectMaid(executorFactory)
+        val otherReflectMaid = aReflectMaid(executorFactory)
+        val proxyFactory = reflectMaid.createIndexedDynamicProxyFactory<MyInterface>()
+        val otherProxyFactory = otherReflectMaid.createIndexedDynamicProxyFactory<MyInterface>()
+
+        val proxy = proxyFactory.createProxy { _, parameters -> "first: " + parameters[0] }
+        val otherProxy = otherProxyFactory.createProxy { _, parameters -> "second: " + parameters[0] }
+        assertThat(proxy.call("a"), `is`("first: a"))
+        assertThat(otherProxy.call("b"), `is`("second: b"))
+        assertThat(otherProxyFactory.methods()[0].reflectMaid === otherReflectMaid, `is`(true))
+        assertThat(otherProxy.javaClass == proxy.javaClass, `is`(true))
+    }
+
+    @Test
+    fun indexedDynamicProxyDispatchesByMethodIndex() {
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory())
+        val proxyFactory = reflectMaid.createIndexedDynamicProxyFactory<MyMultiMethodInterface>()
+        val methods = proxyFactory.methods()
+        val proxy = proxyFactory.createIndexedProxy { methodIndex, args ->
+            methods[methodIndex].name + args.size
+        }
+
+        assertThat(proxy.method0(), `is`("method00"))
+        assertThat(proxy.method1(), `is`("method10"))
+    }
+
+    @Test
+    fun boundDynamicProxyCallsHandlerOfEachMethod() {
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory())
+        val proxyFactory = reflectMaid.createIndexedDynamicProxyFactory<MyInterface>()
+        val method = proxyFactory.methods().first { it.name == "call" }
+        val proxy = proxyFactory.createBoundProxy(mapOf(method to MethodProxyHandler { args -> "bound: " + args[0] }))
+
+        assertThat(proxy.call("foo"), `is`("bound: foo"))
+    }
+
+    @Test
+    fun generatedDecoratorForwardsToTargetAndCallsInterceptor() {
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory())
+        val decoratorFactory = reflectMaid.createDecoratorFactory<MyTypedInterface<Int>>()
+        val target = object : MyTypedInterface<Int> {
+            override fun call(parameter0: Int, parameter1: Int) = parameter0 + parameter1
+        }
+        val calls = ArrayList<String>()
+        val decorator = decoratorFactory.createDecorator(target, object : DecoratorInterceptor {
+            override fun before(method: ResolvedMethod, args: Array<Any?>) {
+                calls.add("before ${method.name}(${args.joinToString()})")
+            }
+
+            override fun after(method: ResolvedMethod, args: Array<Any?>, returnValue: Any?) {
+                calls.add("after ${method.name} -> $returnValue")
+            }
+        })
+
+        assertThat(decorator.call(1, 2), `is`(3))
+        assertThat(calls, `is`(listOf("before call(1, 2)", "after call -> 3")))
+        assertThat(decoratorFactory.createDecorator(target).call(3, 4), `is`(7))
+        val otherDecorator = reflectMaid.createDecoratorFactory<MyTypedInterface<Int>>().createDecorator(target)
+        assertThat(otherDecorator.javaClass == decoratorFactory.createDecorator(target).javaClass, `is`(true))
+    }
+
+    @Test
+    fun decoratorFactoryCanBeSharedByReflectMaids() {
+        val executorFactory = byteCodeExecutorFactory()
+        val decoratorFactory = aReflectMaid(executorFactory).createDecoratorFactory<MyInterface>()
+        val otherReflectMaid = aReflectMaid(executorFactory)
+        val otherDecoratorFactory = otherReflectMaid.createDecoratorFactory<MyInterface>()
+        val target = object : MyInterface {
+            override fun call(parameter: String) = "target: $parameter"
+        }
+
+        assertThat(decoratorFactory.createDecorator(target).call("a"), `is`("target: a"))
+        assertThat(otherDecoratorFactory.createDecorator(target).call("b"), `is`("target: b"))
+        assertThat(otherDecoratorFactory.methods()[0].reflectMaid === otherReflectMaid, `is`(true))
+        val decoratorClass = decoratorFactory.createDecorator(target).javaClass
+        assertThat(otherDecoratorFactory.createDecorator(target).javaClass == decoratorClass, `is`(true))
+    }
+
+    @Test
+    fun generatedDecoratorForwardsObjectMethodsToTarget() {
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory())
+        val decoratorFactory = reflectMaid.createDecoratorFactory<MyInterface>()
+        val target = object : MyInterface {
+            override fun call(parameter: String) = "target: $parameter"
+
+            override fun equals(other: Any?) = other == "equal"
+
+            override fun hashCode() = 1337
+
+            override fun toString() = "target"
+        }
+        val calls = ArrayList<String>()
+        val decorator = decoratorFactory.createDecorator(target, object : DecoratorInterceptor {
+            override fun before(method: ResolvedMethod, args: Array<Any?>) {
+                calls.add(method.name)
+            }
+        })
+
+        assertThat(decorator.toString(), `is`("target"))
+        assertThat(decorator.hashCode(), `is`(1337))
+        assertThat(decorator.equals("equal"), `is`(true))
+        assertThat(calls.isEmpty(), `is`(true))
+    }
+
+    @Test
+    fun generatedDecoratorInterceptsCallsThroughGenericSuperInterface() {
+        val reflectMaid = aReflectMaid(byteCodeExecutorFactory())
+        val decoratorFactory = reflectMaid.createDecoratorFactory<MyStringConsumer>()
+        val target = object : MyStringConsumer {
+            override fun accept(value: String) = value.length
+        }
+        val calls = ArrayList<String>()
+        val decorator: MyConsumer<String> = decoratorFactory.createDecorator(target, object : DecoratorInterceptor {
+            override fun before(method: ResolvedMethod, args: Array<Any?>) {
+                calls.add("${method.declaringType.description()}.${method.name}(${args.joinToString()})")
+            }
+        })
+
+        assertThat(decorator.accept("abc"), `is`(3))
+        assertThat((decorator as MyStringConsumer).accept("ab"), `is`(2))
+        val name = MyStringConsumer::class.java.name
+        assertThat(calls, `is`(listOf("$name.accept(abc)", "$name.accept(ab)")))
+        assertThat(decoratorFactory.methods().size, `is`(1))
+    }
 }
\ No newline at end of file
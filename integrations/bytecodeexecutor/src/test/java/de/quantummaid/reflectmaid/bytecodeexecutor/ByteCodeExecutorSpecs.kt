@@ -22,6 +22,7 @@ package de.quantummaid.reflectmaid.bytecodeexecutor
 
 import de.quantummaid.reflectmaid.ReflectMaid
 import de.quantummaid.reflectmaid.bytecodeexecutor.ByteCodeExecutorFactory.Companion.byteCodeExecutorFactory
+import de.quantummaid.reflectmaid.bytecodeexecutor.types.TypeWithInaccessibleMembers
 import de.quantummaid.reflectmaid.bytecodeexecutor.types.TypeWithPublicFields
 import de.quantummaid.reflectmaid.bytecodeexecutor.types.TypeWithPublicFieldsAndTypeVariable
 import org.hamcrest.CoreMatchers.`is`
@@ -29,6 +30,7 @@ import org.hamcrest.MatcherAssert.assertThat
 import org.hamcrest.Matchers.contains
 import org.hamcrest.Matchers.instanceOf
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 
 class ByteCodeExecutorSpecs {
 
@@ -183,4 +185,136 @@ class ByteCodeExecutorSpecs {
         setter.set(null, "bar")
         assertThat(TypeWithPublicFieldsAndTypeVariable.staticField, `is`("bar"))
     }
+
+    @Test
+    fun methodCanBeExecutedWithArrayAndFixedArity() {
+        val reflectMaid = ReflectMaid.aReflectMaid(byteCodeExecutorFactory())
+        val resolvedType = reflectMaid.resolve<List<String>>()
+        val method = resolvedType.methods()
+                .filter { it.name == "get" }
+                .first { it.parameters.size == 1 }
+        val executor = method.createExecutor()
+        val list = ArrayList<String>()
+        list.add("foooo")
+        assertThat(executor.execute(list, arrayOf<Any?>(0)), `is`("foooo"))
+        assertThat(executor.execute1(list, 0), `is`("foooo"))
+    }
+
+    @Test
+    fun constructorCanBeExecutedWithoutParameters() {
+        val reflectMaid = ReflectMaid.aReflectMaid(byteCodeExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val executor = resolvedType.constructors()[0].createExecutor()
+        assertThat(executor.execute0(null), instanceOf(TypeWithPublicFields::class.java))
+    }
+
+    @Test
+    fun staticMethodCanBeExecutedWithFixedArity() {
+        val reflectMaid = ReflectMaid.aReflectMaid(byteCodeExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val method = resolvedType.methods().first { it.name == "concat" }
+        val executor = method.createExecutor()
+        assertThat(executor.execute2(null, "a", "b"), `is`("ab"))
+    }
+
+    @Test
+    fun primitiveFieldsCanBeAccessedWithoutBoxing() {
+        val reflectMaid = ReflectMaid.aReflectMaid(byteCodeExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val fields = resolvedType.fields().associateBy { it.name }
+        val instance = TypeWithPublicFields()
+
+        fields["intField"]!!.createIntSetter().setInt(instance, 1)
+        fields["longField"]!!.createLongSetter().setLong(instance, 2L)
+        fields["doubleField"]!!.createDoubleSetter().setDouble(instance, 3.0)
+        fields["booleanField"]!!.createBooleanSetter().setBoolean(instance, true)
+
+        assertThat(fields["intField"]!!.createIntGetter().getInt(instance), `is`(1))
+        assertThat(fields["longField"]!!.createLongGetter().getLong(instance), `is`(2L))
+        assertThat(fields["doubleField"]!!.createDoubleGetter().getDouble(instance), `is`(3.0))
+        assertThat(fields["booleanField"]!!.createBooleanGetter().getBoolean(instance), `is`(true))
+    }
+
+    @Test
+    fun methodWithPrimitiveParametersAndReturnTypeCanBeExecuted() {
+        val reflectMaid = ReflectMaid.aReflectMaid(byteCodeExecutorFactory())
+        val resolvedType = reflectMaid.resolve<Math>()
+        val method = resolvedType.methods()
+                .filter { it.name == "max" }
+                .first { it.parameters[0].type.description() == "long" }
+        val executor = method.createExecutor()
+        assertThat(executor.execute2(null, 3L, 9L), `is`(9L))
+        assertThat(executor.execute(null, listOf(3L, 9L)), `is`(9L))
+    }
+
+    @Test
+    fun preparedTypeSharesOneGeneratedClassForAllMembers() {
+        val executorFactory = byteCodeExecutorFactory()
+        val reflectMaid = ReflectMaid.aReflectMaid(executorFactory)
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        executorFactory.prepare(resolvedType)
+
+        val fields = resolvedType.fields().associateBy { it.name }
+        val getter = fields["field"]!!.createGetter()
+        val intSetter = fields["intField"]!!.createIntSetter()
+        val executor = resolvedType.methods().first { it.name == "concat" }.createExecutor()
+        val constructorExecutor = resolvedType.constructors()[0].createExecutor()
+
+        val instance = constructorExecutor.execute0(null) as TypeWithPublicFields
+        instance.field = "foo"
+        intSetter.setInt(instance, 5)
+        assertThat(getter.get(instance), `is`("foo"))
+        assertThat(instance.intField, `is`(5))
+        assertThat(executor.execute2(null, "a", "b"), `is`("ab"))
+        assertThat(executor.execute(null, listOf("c", "d")), `is`("cd"))
+        assertThat(setOf(getter.javaClass, intSetter.javaClass, executor.javaClass, constructorExecutor.javaClass).size, `is`(1))
+    }
+
+    @Test
+    fun generatedClassesOfOneFactoryShareOneClassLoader() {
+        val reflectMaid = ReflectMaid.aReflectMaid(byteCodeExecutorFactory())
+        val resolvedType = reflectMaid.resolve<TypeWithPublicFields>()
+        val fields = resolvedType.fields().associateBy { it.name }
+        val getter = fields["field"]!!.createGetter()
+        val setter = fields["field"]!!.createSetter()
+        val executor = resolvedType.methods().first { it.name == "concat" }.createExecutor()
+        assertThat(setter.javaClass.classLoader, `is`(getter.javaClass.classLoader))
+        assertThat(executor.javaClass.classLoader, `is`(getter.javaClass.classLoader))
+
+        val otherReflectMaid = ReflectMaid.aReflectMaid(byteCodeExecutorFactory())
+        val otherGetter = otherReflectMaid.resolve<TypeWithPublicFields>().fields()
+                .first { it.name == "field" }
+                .createGetter()
+        assertThat(otherGetter.javaClass.classLoader === getter.javaClass.classLoader, `is`(false))
+    }
+
+    @Test
+    fun privateMethodIsRejectedWhenExecutorIsCreated() {
+        val executorFactory = byteCodeExecutorFactory()
+        val reflectMaid = ReflectMaid.aReflectMaid(executorFactory)
+        val resolvedType = reflectMaid.resolve<TypeWithInaccessibleMembers>()
+        executorFactory.prepare(resolvedType)
+        val method = resolvedType.methods().first { it.name == "privateMethod" }
+        val exception = assertThrows<InaccessibleMemberException> { method.createExecutor() }
+        assertThat(exception.message, `is`(
+                "cannot generate an accessor for 'private java.lang.String " +
+                        "de.quantummaid.reflectmaid.bytecodeexecutor.types.TypeWithInaccessibleMembers.privateMethod()' " +
+                        "because generated code can only access public members of public types " +
+                        "whose parameters are public types and constructors of non-abstract classes"
+        ))
+    }
+
+    @Test
+    fun finalFieldCanBeGottenButIsRejectedWhenSetterIsCreated() {
+        val executorFactory = byteCodeExecutorFactory()
+        val reflectMaid = ReflectMaid.aReflectMaid(executorFactory)
+        val resolvedType = reflectMaid.resolve<TypeWithInaccessibleMembers>()
+        val field = resolvedType.fields().first { it.name == "finalField" }
+        assertThat(field.createGetter().get(TypeWithInaccessibleMembers()), `is`("foo"))
+        assertThrows<InaccessibleMemberException> { field.createSetter() }
+
+        executorFactory.prepare(resolvedType)
+        assertThat(field.createGetter().get(TypeWithInaccessibleMembers()), `is`("foo"))
+        assertThrows<InaccessibleMemberException> { field.createSetter() }
+    }
 }
\ No newline at end of file